@@ -1,6 +1,8 @@
 import ea.Evolver;
 import ea.Settings;
 import nsga.Individual;
+import parser.Instances;
+import parser.Map;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
@@ -21,6 +23,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.io.IOException;
 import java.util.ArrayList;
 
 public class Main {
@@ -28,6 +31,9 @@ public class Main {
     // The evolution
     private Evolver evo;
 
+    // The instance to solve
+    private Map map;
+
     // Java SWING!
     private JLabel generationLabel;
     private JLabel allCountLabel;
@@ -60,15 +66,20 @@ public class Main {
      * @param args From sys
      */
 
-    public static void main(String[] args) {
-        new Main();
+    public static void main(String[] args) throws IOException {
+        Settings.parseArguments(args);
+        new Main(Instances.load(Settings.instance));
     }
 
     /**
      * Constructor
+     *
+     * @param map The instance to solve
      */
 
-    public Main() {
+    public Main(Map map) {
+        this.map = map;
+
         // Create the charts
         this.createAllChart();
         this.createFrontChart();
@@ -254,8 +265,7 @@ public class Main {
         this.running = true;
 
         // Start the evolver
-        this.evo = new Evolver();
-        this.evo.initialize();
+        this.startEvolver();
 
         Timer timer = new Timer(Settings.tick, new ActionListener() {
             @Override
@@ -268,17 +278,28 @@ public class Main {
         timer.start();
     }
 
+    /**
+     * Create and initialize a new evolver, shutting down the threads of the previous one
+     */
+
+    private void startEvolver() {
+        if (this.evo != null) {
+            this.evo.close();
+        }
+        this.evo = new Evolver(this.map);
+        this.evo.initialize();
+    }
+
     private void weirdPlotting() {
 
         //
         // FIRST RUN
         //
 
-        this.evo = new Evolver();
-        this.evo.initialize();
+        this.startEvolver();
         this.evo.solve();
 
-        ArrayList<Individual> runOnePareto = new ArrayList<>(this.evo.getParetoFronts().get(0).getAllMembers());
+        ArrayList<Individual> runOnePareto = this.evo.getFinalFront().toIndividuals();
 
         //
         // RUN TWO
@@ -290,11 +311,10 @@ public class Main {
         Settings.mutation = 0.5;
         Settings.tournamentSize = 50;
 
-        this.evo = new Evolver();
-        this.evo.initialize();
+        this.startEvolver();
         this.evo.solve();
 
-        ArrayList<Individual> runTwoPareto = new ArrayList<>(this.evo.getParetoFronts().get(0).getAllMembers());
+        ArrayList<Individual> runTwoPareto = this.evo.getFinalFront().toIndividuals();
 
         //
         // RUN THREE
@@ -306,11 +326,11 @@ public class Main {
         Settings.mutation = 0.7;
         Settings.tournamentSize = 100;
 
-        this.evo = new Evolver();
-        this.evo.initialize();
+        this.startEvolver();
         this.evo.solve();
 
-        ArrayList<Individual> runThreePareto = new ArrayList<>(this.evo.getParetoFronts().get(0).getAllMembers());
+        ArrayList<Individual> runThreePareto = this.evo.getFinalFront().toIndividuals();
+        this.evo.close();
 
         //
         // PLOTTING
@@ -406,11 +426,15 @@ public class Main {
             // Run one generation
             boolean state = this.evo.runGeneration();
 
+            // Take snapshots of the parents and the first front
+            ArrayList<Individual> parents = this.evo.getParents();
+            ArrayList<Individual> front = this.evo.getFinalFront().toIndividuals();
+
             // Update generation label
             generationLabel.setText("Generation: " + this.evo.getGeneration() + " / " + Settings.maxGeneration);
-            allCountLabel.setText("Population Size: " + this.evo.getParents().size());
+            allCountLabel.setText("Population Size: " + parents.size());
             frontNumberCount.setText("Number of fronts: " + this.evo.getParetoFronts().size());
-            frontCountLabel.setText("Non Dominated Solutions: " + this.evo.getParetoFronts().get(0).getSize());
+            frontCountLabel.setText("Non Dominated Solutions: " + this.evo.getFinalFront().getSize());
 
             // Remove legends
             allChart.removeLegend();
@@ -421,10 +445,10 @@ public class Main {
             //
 
             // Store the best and worst for each member in this front
-            ArrayList<Individual> allBestAndWorst = Evolver.getBestAndWorst(this.evo.getParents());
+            ArrayList<Individual> allBestAndWorst = Evolver.getBestAndWorst(parents);
 
             // Loop all the individuals
-            for (Individual member : this.evo.getParents()) {
+            for (Individual member : parents) {
                 // Avoid plotting the best/worst because they overdraw each other
                 if (!allBestAndWorst.contains(member)) {
                     // Add current member to plot
@@ -467,10 +491,10 @@ public class Main {
             //
 
             // Store the best and worst for each member in this front
-            ArrayList<Individual> frontBestAndWorst = Evolver.getBestAndWorst(this.evo.getParetoFronts().get(0).getAllMembers());
+            ArrayList<Individual> frontBestAndWorst = Evolver.getBestAndWorst(front);
 
             // Loop all members in the first front
-            for (Individual member : this.evo.getParetoFronts().get(0).getAllMembers()) {
+            for (Individual member : front) {
                 // Avoid plotting the best/worst because they overdraw each other
                 if (!frontBestAndWorst.contains(member)) {
                     // Add current member to plot
@@ -511,6 +535,7 @@ public class Main {
             // Check if we should break
             if (!state) {
                 running = false;
+                this.evo.close();
             }
         }
     }
@@ -0,0 +1,207 @@
+package ea;
+
+import nsga.Population;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class Breeder {
+
+    // Population holding the parents, children are written to it as well
+    private Population population;
+    private int parentCount;
+
+    // Random number stream for the chunk being bred
+    private SplittableRandom random;
+
+    // Permutation of the parent slots, the tournaments are drawn from it
+    private int[] candidates;
+    private int[] bestParents;
+
+    // Index of the position of each city, used by crossover
+    private int[] positions;
+
+    /**
+     * Constructor
+     */
+
+    public Breeder() {
+        this.candidates = new int[0];
+        this.bestParents = new int[2];
+        this.positions = new int[0];
+    }
+
+    /**
+     * Prepare for a new generation of breeding
+     *
+     * @param population Population holding the parents in the first parentCount slots
+     * @param parentCount Number of parents
+     */
+
+    public void prepare(Population population, int parentCount) {
+        this.population = population;
+        this.parentCount = parentCount;
+
+        // Grow the permutation if needed
+        if (this.candidates.length < parentCount) {
+            this.candidates = Arrays.copyOf(this.candidates, parentCount);
+        }
+        if (this.positions.length < population.getCities() + 1) {
+            this.positions = new int[population.getCities() + 1];
+        }
+    }
+
+    /**
+     * Breed children into a range of slots
+     *
+     * @param from First child slot, inclusive
+     * @param to Last child slot, exclusive. The range must hold an even number of slots
+     * @param random Random number stream for this range
+     */
+
+    public void breed(int from, int to, SplittableRandom random) {
+        this.random = random;
+
+        // The tournaments are drawn from a permutation of the parent slots, restarted for each range so the children
+        // do not depend on which ranges this breeder did before
+        for (int i = 0; i < parentCount; i++) {
+            this.candidates[i] = i;
+        }
+
+        for (int child1 = from; child1 < to; child1 += 2) {
+            int child2 = child1 + 1;
+
+            int mother;
+            int father;
+
+            // Select parents
+            if (Settings.bestParentSelection) {
+                int[] parents = selectBestParent();
+                mother = parents[0];
+                father = parents[1];
+            } else {
+
+                mother = selectParent();
+                father = selectParent();
+            }
+
+            // Create offspring
+            population.crossover(mother, father, population, child1, child2, random, positions);
+
+            // Mutate offspring
+            population.mutate(child1, random);
+            population.mutate(child2, random);
+        }
+    }
+
+    /**
+     * Parent selection with tournament selection
+     *
+     * @return The lucky parent!
+     */
+
+    private int selectParent() {
+        // Parent to be returned
+        int parent;
+
+        // Check if we should select a random
+        if (Settings.e <= random.nextDouble()) {
+            // Random selection, the first member of a random tournament
+            parent = random.nextInt(parentCount);
+        } else {
+            // Select parent with best crowding distance
+            int tournamentSize = sampleTournament();
+            parent = candidates[0];
+            for (int i = 1; i < tournamentSize; i++) {
+                if (isBetterParent(candidates[i], parent)) {
+                    parent = candidates[i];
+                }
+            }
+        }
+
+        if (Settings.sexualPreventionCrowdingDistance) {
+            // If it has a crowdinDistance of 0.0 don't chose it
+            if (population.getCrowdingDistance(parent) == 0.0) {
+                return selectParent();
+            }
+        }
+        return parent;
+
+    }
+
+    /**
+     * Check if a candidate beats the current tournament leader. Same order as Sorter.crowdingDistanceComparator, ties
+     * keep the leader.
+     *
+     * @param candidate The candidate
+     * @param leader The current leader
+     * @return True if the candidate is better
+     */
+
+    private boolean isBetterParent(int candidate, int leader) {
+        // Compare pareto rank. Lower is better
+        if (population.getParetoRank(candidate) != population.getParetoRank(leader)) {
+            return population.getParetoRank(candidate) < population.getParetoRank(leader);
+        }
+
+        // Compare crowding distance. Higher is better
+        return population.getCrowdingDistance(candidate) > population.getCrowdingDistance(leader);
+    }
+
+    /**
+     * Parent selection option 2
+     * Best distance and second best cost from the same tournament
+     *
+     * @return The two lucky parents
+     */
+
+    private int[] selectBestParent() {
+        int tournamentSize = sampleTournament();
+
+        // Find best distance, and the two best costs, ties keep the earliest candidate
+        int bestDistance = candidates[0];
+        int bestCost = candidates[0];
+        int secondBestCost = -1;
+        for (int i = 1; i < tournamentSize; i++) {
+            int candidate = candidates[i];
+
+            if (population.getDistance(candidate) < population.getDistance(bestDistance)) {
+                bestDistance = candidate;
+            }
+
+            if (population.getCost(candidate) < population.getCost(bestCost)) {
+                secondBestCost = bestCost;
+                bestCost = candidate;
+            }
+            else if (secondBestCost == -1 || population.getCost(candidate) < population.getCost(secondBestCost)) {
+                secondBestCost = candidate;
+            }
+        }
+
+        // Parents to be returned, a tournament of one gives the same parent twice
+        bestParents[0] = bestDistance;
+        bestParents[1] = secondBestCost == -1 ? bestCost : secondBestCost;
+
+        return bestParents;
+    }
+
+    /**
+     * Draw a tournament of distinct parents without replacement. A partial Fisher-Yates shuffle moves a random sample
+     * to the front of the candidates permutation.
+     *
+     * @return Size of the tournament, the tournament is the first part of the candidates buffer
+     */
+
+    private int sampleTournament() {
+        int tournamentSize = Math.min(parentCount, Settings.tournamentSize);
+
+        for (int i = 0; i < tournamentSize; i++) {
+            int j = i + random.nextInt(parentCount - i);
+            int temp = candidates[i];
+            candidates[i] = candidates[j];
+            candidates[j] = temp;
+        }
+
+        return tournamentSize;
+    }
+}
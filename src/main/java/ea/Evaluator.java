@@ -0,0 +1,117 @@
+package ea;
+
+import nsga.Population;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class Evaluator {
+
+    // Ranges smaller than this are evaluated without splitting further
+    private static final int THRESHOLD = 32;
+
+    // Pool to run the evaluations on, null when evaluating sequentially
+    private ForkJoinPool pool;
+
+    // Objectives of routes seen before, null when not caching
+    private FitnessCache cache;
+
+    /**
+     * Constructor
+     *
+     * @param pool Pool to run the evaluations on, null evaluates on the calling thread
+     * @param cache Cache to consult before evaluating, null to always evaluate
+     */
+
+    public Evaluator(ForkJoinPool pool, FitnessCache cache) {
+        this.pool = pool;
+        this.cache = cache;
+    }
+
+    /**
+     * Evaluate all slots in a range that do not have their objectives calculated yet
+     *
+     * @param population The population
+     * @param from First slot, inclusive
+     * @param to Last slot, exclusive
+     * @return Number of slots evaluated, not counting the ones found in the cache
+     */
+
+    public int evaluate(Population population, int from, int to) {
+        if (this.pool == null) {
+            return evaluateRange(population, from, to, this.cache);
+        }
+
+        return this.pool.invoke(new EvaluationTask(population, from, to, this.cache));
+    }
+
+    /**
+     * Evaluate a range on the calling thread
+     *
+     * @param population The population
+     * @param from First slot, inclusive
+     * @param to Last slot, exclusive
+     * @param cache Cache to consult first, may be null
+     * @return Number of slots evaluated
+     */
+
+    private static int evaluateRange(Population population, int from, int to, FitnessCache cache) {
+        int evaluated = 0;
+        for (int slot = from; slot < to; slot++) {
+            if (population.isEvaluated(slot)) {
+                continue;
+            }
+
+            // Evaluate the route, unless we have seen it before
+            if (cache == null) {
+                population.evaluate(slot);
+            }
+            else {
+                long hash = population.routeHash(slot);
+                long check = population.routeCheck(slot);
+                if (cache.lookup(hash, check, population, slot)) {
+                    continue;
+                }
+                population.evaluate(slot);
+                cache.store(hash, check, population.getDistance(slot), population.getCost(slot));
+            }
+            evaluated++;
+        }
+        return evaluated;
+    }
+
+    /**
+     * Task splitting a range of slots in halves until it is small enough to evaluate directly
+     */
+
+    private static class EvaluationTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private Population population;
+        private int from;
+        private int to;
+        private FitnessCache cache;
+
+        EvaluationTask(Population population, int from, int to, FitnessCache cache) {
+            this.population = population;
+            this.from = from;
+            this.to = to;
+            this.cache = cache;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (this.to - this.from <= THRESHOLD) {
+                return evaluateRange(this.population, this.from, this.to, this.cache);
+            }
+
+            // Split in two, evaluating the second half on this thread
+            int middle = (this.from + this.to) >>> 1;
+            EvaluationTask first = new EvaluationTask(this.population, this.from, middle, this.cache);
+            first.fork();
+            int evaluated = new EvaluationTask(this.population, middle, this.to, this.cache).compute();
+            return evaluated + first.join();
+        }
+    }
+}
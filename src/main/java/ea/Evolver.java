@@ -1,80 +1,178 @@
 package ea;
 
+import island.Migrant;
+import local.MemeticStage;
+import local.ParetoLocalSearch;
+import nsga.CrowdingDistance;
 import nsga.Individual;
+import nsga.Population;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
 import parento.ParetoFront;
+import parser.Instances;
 import parser.Map;
+import sort.NonDominatedSorter;
 import sort.Sorter;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-public class Evolver {
+public class Evolver implements AutoCloseable {
+
+    // The instance we are solving
+    private Map map;
 
     private int generation;
-    private ArrayList<Individual> childPool;
-    private ArrayList<Individual> parentPool;
     private ArrayList<ParetoFront> paretoFronts;
 
-    // Tables to penalize similar values
-    private HashMap<Double, Boolean> distanceMap;
-    private HashMap<Double, Boolean> costMap;
+    // Parents are stored in the first parentCount slots, followed by the children
+    private Population population;
+    private int parentCount;
+
+    // The population the next generation is written to, swapped with the current population each generation
+    private Population nextPopulation;
+
+    // Scratch buffers, reused between generations
+    private int[] survivors;
+    private int[] sortBuffer;
+
+    // Random number generator, the breeding chunks get streams split off from it
+    private SplittableRandom random;
+    private SplittableRandom[] chunkRandoms;
+
+    // Worker threads, null when running on the calling thread
+    private ForkJoinPool pool;
+
+    // One breeder for each worker thread
+    private Breeder[] breeders;
+
+    // Number of children bred with the same random number stream
+    private static final int BREEDING_CHUNK_SIZE = 64;
+
+    // Sorter used to rank the population
+    private NonDominatedSorter sorter;
+
+    // Hashes of the routes seen this generation, mapped to the first slot holding the route
+    private LongIntHashMap routeHashes;
+
+    // Slots holding a route that was already seen this generation
+    private boolean[] duplicates;
 
     // Remove duplicates
     private int duplicatesRemoves = 0;
 
+    // Assigns crowding distance to the fronts
+    private CrowdingDistance crowdingDistance;
+
+    // Evaluates the objectives of new children
+    private Evaluator evaluator;
+    private int evaluations = 0;
+
+    // Objectives of routes evaluated before, null when the cache is off
+    private FitnessCache fitnessCache;
+
+    // Improves some of the children with local search, null when turned off
+    private MemeticStage memeticStage;
+    private int localSearchMoves = 0;
+
+    // The first front after Pareto local search, null until it has run
+    private ParetoFront polishedFront;
+
+    // Seed of the random number generator
+    private long seed;
+
+    // Print progress to standard out
+    private boolean verbose = true;
+
     // All time highest
     private double dist = Double.POSITIVE_INFINITY;
     private double cost = Double.POSITIVE_INFINITY;
 
+    /**
+     * Constructor, with the seed and number of threads from the settings
+     *
+     * @param map The instance to solve
+     */
+
+    public Evolver(Map map) {
+        this(map, Settings.seed, Settings.threads);
+    }
+
     /**
      * Constructor
+     *
+     * @param map The instance to solve
+     * @param seed Seed for the random number generator
+     * @param threads Number of threads used to breed and evaluate children, 1 runs everything on the calling thread
      */
 
-    public Evolver() {
-        // Initialize unique maps
-        clearMaps();
+    public Evolver(Map map, long seed, int threads) {
+        this.map = map;
+        this.seed = seed;
 
-        // Load the map to make sure we have the correct pool size loaded
-        Map.getInstance();
+        // Initialize the route hashes
+        routeHashes = new LongIntHashMap();
+        duplicates = new boolean[0];
 
         // Set current generation
         this.generation = 0;
 
-        // Create empty child and parent pool
-        childPool = new ArrayList<>();
-        parentPool = new ArrayList<>();
+        // Create empty populations, room for both parents and children
+        population = new Population(2 * Settings.populationSize, map);
+        nextPopulation = new Population(2 * Settings.populationSize, map);
+        parentCount = 0;
         paretoFronts = new ArrayList<>();
+
+        // Create the scratch buffers
+        survivors = new int[0];
+        sortBuffer = new int[0];
+        random = new SplittableRandom(seed);
+        chunkRandoms = new SplittableRandom[0];
+        sorter = new NonDominatedSorter();
+
+        // Create the worker threads, shared by breeding and evaluation
+        threads = Math.max(1, threads);
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        breeders = new Breeder[threads];
+        for (int i = 0; i < threads; i++) {
+            breeders[i] = new Breeder();
+        }
+        fitnessCache = Settings.fitnessCacheSize > 0 ? new FitnessCache(Settings.fitnessCacheSize) : null;
+        evaluator = new Evaluator(pool, fitnessCache);
+        crowdingDistance = new CrowdingDistance(pool);
+
+        // Improve some of the children with local search, if turned on
+        if (Settings.localSearch > 0) {
+            memeticStage = new MemeticStage(map, pool, threads);
+        }
     }
 
     /**
-     * Method for clearing fitness maps
+     * Check if the route in a slot was already seen this generation. Routes are compared as tours, so the same tour
+     * starting at another city or walked backwards is a duplicate.
+     *
+     * @param population Population holding the slot
+     * @param slot The slot
+     * @return The slot that first held the route, or -1 if the route is new
      */
 
-    private void clearMaps() {
-        distanceMap = new HashMap<>();
-        costMap = new HashMap<>();
-    }
+    private int findDuplicate(Population population, int slot) {
+        long hash = population.routeHash(slot);
 
-    private boolean existingFitness(Individual individual) {
-        boolean distance = false;
-        boolean cost = false;
-
-        // -- Distance --
-        // Check if other individual with this fitness exists
-        if (distanceMap.get(individual.getDistance()) != null) {
-            distance = true;
-        } else {
-            distanceMap.put(individual.getDistance(), true);
+        // Check if other individual with this route exists
+        int original = routeHashes.getIfAbsent(hash, -1);
+        if (original == -1) {
+            routeHashes.put(hash, slot);
+            return -1;
         }
 
-        // -- Cost --
-        // Check if other individual with this fitness exists
-        if (costMap.get(individual.getCost()) != null) {
-            cost = true;
-        } else {
-            costMap.put(individual.getCost(), true);
+        // Make sure it is not just a hash collision, in that case we keep both
+        if (!population.sameRoute(slot, population, original)) {
+            return -1;
         }
 
-        return (distance && cost);
+        return original;
     }
 
     /**
@@ -83,13 +181,20 @@ public class Evolver {
      * @param args From sys
      */
 
-    public static void main(String[] args) {
-        // Initialize Map Parsing
-        Map.getInstance();
+    public static void main(String[] args) throws IOException {
+        Settings.parseArguments(args);
+
+        // Load the instance
+        Map map = Instances.load(Settings.instance);
 
-        Evolver e = new Evolver();
-        e.initialize();
-        e.solve();
+        Evolver e = new Evolver(map);
+        try {
+            e.initialize();
+            e.solve();
+        }
+        finally {
+            e.close();
+        }
     }
 
     /**
@@ -97,15 +202,21 @@ public class Evolver {
      */
 
     public void initialize() {
-        // Add children to initial pool
-        for (int i = 0; i < Settings.populationSize; i++) {
-            childPool.add(new Individual());
+        if (verbose) {
+            System.out.println("Seed: " + seed);
         }
 
-        // Add parents to initial pool
-        for (int i = 0; i < Settings.populationSize; i++) {
-            parentPool.add(new Individual());
+        // Add parents and children to initial pool
+        population.setSize(2 * Settings.populationSize);
+        for (int i = 0; i < population.getSize(); i++) {
+            population.randomize(i, random);
         }
+
+        // The first half are the parents
+        parentCount = Settings.populationSize;
+
+        // Evaluate the initial pool
+        evaluations = evaluator.evaluate(population, 0, population.getSize());
     }
 
     /**
@@ -115,28 +226,42 @@ public class Evolver {
      */
 
     public boolean runGeneration() {
-        // Clear unique maps
-        clearMaps();
+        // Clear the route hashes
+        routeHashes.clear();
 
-        System.out.println("Generation #" + this.generation);
+        if (verbose) {
+            System.out.println("Generation #" + this.generation);
+        }
         if (this.generation < Settings.maxGeneration) {
             this.evolve();
 
             storeBestAndWorst();
             return true;
         }
+        this.polish();
         storeBestAndWorst();
         return false;
     }
 
     private void storeBestAndWorst() {
-        ArrayList<Individual> bestAndWorst = getBestAndWorst(this.paretoFronts.get(0).getAllMembers());
-
-        // TODO: fix
-        double dBest = bestAndWorst.get(1).getDistance();
-        double dWorst = bestAndWorst.get(0).getDistance();
-        double cBest = bestAndWorst.get(3).getCost();
-        double cWorst = bestAndWorst.get(2).getCost();
+        ParetoFront front = this.getFinalFront();
+        Population frontPopulation = front.getPopulation();
+
+        double dBest = Double.POSITIVE_INFINITY;
+        double dWorst = Double.NEGATIVE_INFINITY;
+        double cBest = Double.POSITIVE_INFINITY;
+        double cWorst = Double.NEGATIVE_INFINITY;
+
+        // Loop the front
+        for (int i = 0; i < front.getSize(); i++) {
+            double distance = frontPopulation.getDistance(front.getMember(i));
+            double cost = frontPopulation.getCost(front.getMember(i));
+
+            dBest = Math.min(dBest, distance);
+            dWorst = Math.max(dWorst, distance);
+            cBest = Math.min(cBest, cost);
+            cWorst = Math.max(cWorst, cost);
+        }
 
         if (dBest < dist) {
             dist = dBest;
@@ -146,9 +271,20 @@ public class Evolver {
             cost = cBest;
         }
 
+        if (!verbose) {
+            return;
+        }
+
         System.out.println("----------------------------------------");
         System.out.println("[Distance] BEST: " + dist + " WORST: " + dWorst);
         System.out.println("[Cost]     BEST: " + cost + "   WORST: " + cWorst);
+        System.out.println("[Evaluations] " + evaluations);
+        if (memeticStage != null) {
+            System.out.println("[Local]       MOVES: " + localSearchMoves);
+        }
+        if (fitnessCache != null) {
+            System.out.println("[Cache]       HITS: " + fitnessCache.getHits() + " MISSES: " + fitnessCache.getMisses());
+        }
         System.out.println("----------------------------------------");
 
 
@@ -164,357 +300,224 @@ public class Evolver {
             // Evolve the current generation
             this.runGeneration();
         }
-    }
 
-    /**
-     * Method that removes duplicates
-     */
-
-    private void removeDups(ArrayList<Individual> population) {
-        ArrayList<Individual> removees = new ArrayList<>();
-
-        for (Individual individual : population) {
-            if (individual.getCrowdingDistance() == 0.0) {
-                removees.add(individual);
-            }
+        // Polish the final front, and report it
+        if (this.polish()) {
+            storeBestAndWorst();
         }
-
-        population.removeAll(removees);
-        this.duplicatesRemoves = removees.size();
     }
 
     /**
-     * Implementation of the non-dominated-sort
+     * Polish the first front with Pareto local search, once, if turned on in the settings
      *
-     * @param population Population to sort
+     * @return True if the front was polished now
      */
 
-    private void nonDominatedSort(ArrayList<Individual> population) {
-        // Resets dominated by and number of fronts it is dominated by
-        for (Individual person : population) {
-            person.reset();
+    public boolean polish() {
+        if (Settings.paretoLocalSearchTime <= 0 || polishedFront != null) {
+            return false;
         }
 
-        // Create the first front
-        paretoFronts = new ArrayList<>();
-        paretoFronts.add(new ParetoFront(1));
-
-        // Loop the population
-        for (Individual current : population) {
-
-            // Loop again
-            for (Individual other : population) {
-                // Filter out self
-                if (current != other) {
-                    if (current.dominates(other)) {
-                        current.addDominatedIndividuals(other);
-                    } else if (other.dominates(current)) {
-                        current.increaseDominatedBy();
-                    }
-                }
-            }
-
-            if (current.getDominatedBy() == 0) {
-                // Set rank to individual
-                current.setParetoRank(1);
-
-                // Add to first front
-                paretoFronts.get(0).addMember(current);
-            }
-        }
-
-        // Set the front counter
-        int i = 1;
-
-        // Loop until we have populated all the fronts
-        while (i <= paretoFronts.size()) {
-            ArrayList<Individual> frontMembers = new ArrayList<>();
+        long start = System.nanoTime();
+        ParetoLocalSearch search = new ParetoLocalSearch(map, pool, breeders.length, Settings.paretoArchiveSize);
+        polishedFront = search.run(paretoFronts.get(0), start + Settings.paretoLocalSearchTime * 1000000L);
 
-            for (Individual current : paretoFronts.get(i - 1).getAllMembers()) {
-                for (Individual other : current.getDominatedIndividuals()) {
-                    other.decreaseDominatedBy();
-
-                    if (other.getDominatedBy() == 0) {
-                        other.setParetoRank(i + 1);
-                        frontMembers.add(other);
-                    }
-                }
-            }
-
-            // Increase the front number here
-            i++;
-
-            // Create a new empty front
-            if (frontMembers.size() > 0) {
-                ParetoFront newFront = new ParetoFront(i);
-                newFront.addAll(frontMembers);
-
-                // Add to fronts
-                paretoFronts.add(newFront);
-            }
+        if (verbose) {
+            System.out.println("[Pareto LS]   ROUNDS: " + search.getRounds() + " FRONT: " + paretoFronts.get(0).getSize() +
+                " -> " + polishedFront.getSize() + " in " + (System.nanoTime() - start) / 1000000 + " ms");
         }
+        return true;
     }
 
     /**
-     * Parent selection and breeding
+     * Method that removes duplicates
+     *
+     * @param count Number of survivors
+     * @return Number of survivors after removing duplicates
      */
 
-    private void parentSelectionAndBreeding() {
-        // Copy list of parents
-        ArrayList<Individual> potentialParents = new ArrayList<>(this.parentPool);
-
-        // Create empty list of children
-        ArrayList<Individual> children = new ArrayList<>();
-
-        // Loop until we have enough children
-        while (children.size() < Settings.populationSize + duplicatesRemoves) {
-
-            Individual mother;
-            Individual father;
+    private int removeDups(int count) {
+        int kept = 0;
 
-            // Select parents
-            if (Settings.bestParentSelection) {
-                Individual[] parents = selectBestParent(potentialParents);
-                mother = parents[0];
-                father = parents[1];
-            } else {
-
-                mother = selectParent(potentialParents);
-                father = selectParent(potentialParents);
+        // Keep the survivors that are not duplicates
+        for (int i = 0; i < count; i++) {
+            if (!duplicates[survivors[i]]) {
+                survivors[kept++] = survivors[i];
             }
-
-            // Create offspring
-            Individual[] offspring = mother.crossover(father);
-
-            // Mutate offspring
-            offspring[0].mutate();
-            offspring[1].mutate();
-
-            // Add to child pool
-            children.add(offspring[0]);
-            children.add(offspring[1]);
         }
 
-        // Update child pool
-        this.childPool = children;
+        this.duplicatesRemoves = count - kept;
+        return kept;
     }
 
     /**
-     * Parent selection with tournament selection
+     * Implementation of the non-dominated-sort
      *
-     * @param parents List of potential parents
-     * @return The lucky parent!
+     * @param population Population to sort
      */
 
-    @SuppressWarnings("unchecked")
-    private Individual selectParent(ArrayList<Individual> parents) {
-        // TODO: In place ?
-        ArrayList<Individual> candidates = new ArrayList<>(parents);
-        Collections.shuffle(candidates);
-
-        // Parent to be returned
-        Individual parent = null;
-
-        // Create sublist of parents with tournament size
-        ArrayList<Individual> tournament = new ArrayList<>(candidates.subList(0, Math.min(parents.size(), Settings.tournamentSize)));
-
-        // Check if we should select a random
-        Random r = new Random();
-        if (Settings.e <= r.nextDouble()) {
-            // Random selection
-            parent = tournament.get(0);
-        } else {
-            // Select parent with best crowding distance
-            Collections.sort(tournament, Sorter.crowdingDistanceComparator());
-            parent = tournament.get(0);
-        }
-
-        if (Settings.sexualPreventionCrowdingDistance) {
-            // If it has a crowdinDistance of 0.0 don't chose it
-            if (parent.getCrowdingDistance() == 0.0) {
-                return selectParent(parents);
-            }
-        }
-        return parent;
+    private void nonDominatedSort(Population population) {
+        // Only rank as many as we need to fill the parent pool, unless we want all the fronts
+        int limit = Settings.earlyFrontCutoff ? Settings.populationSize : population.getSize();
 
+        paretoFronts = sorter.sort(population, limit);
     }
 
     /**
-     * Parent selection option 2
-     * Best values from both axises
+     * Parent selection and breeding. The children are bred in chunks, each with its own random number stream, which
+     * are spread over the worker threads. The streams are split off in chunk order, so the children only depend on
+     * the seed and not on how the chunks are scheduled.
+     *
+     * @param target Population holding the parents, the children are added after them
      */
 
-    private Individual[] selectBestParent(ArrayList<Individual> parents) {
-        ArrayList<Individual> candidates = new ArrayList<>(parents);
-        Collections.shuffle(candidates);
-
-        // Parent to be returned
-        Individual[] parent = new Individual[2];
+    private void parentSelectionAndBreeding(final Population target) {
+        // Children are made in pairs, loop until we have enough children
+        int wanted = Settings.populationSize + duplicatesRemoves;
+        final int children = ((wanted + 1) / 2) * 2;
+        target.setSize(parentCount + children);
 
-        // Create sublist of parents with tournament size
-        ArrayList<Individual> tournament = new ArrayList<>(candidates.subList(0, Math.min(parents.size(), Settings.tournamentSize)));
+        // Give each chunk its own random number stream
+        final int chunks = (children + BREEDING_CHUNK_SIZE - 1) / BREEDING_CHUNK_SIZE;
+        if (chunkRandoms.length < chunks) {
+            chunkRandoms = new SplittableRandom[chunks];
+        }
+        for (int i = 0; i < chunks; i++) {
+            chunkRandoms[i] = random.split();
+        }
 
-        // Sort and get best distance
-        Collections.sort(tournament, Sorter.distanceComparator());
-        parent[0] = tournament.get(0);
+        // Prepare the breeders
+        for (Breeder breeder : breeders) {
+            breeder.prepare(target, parentCount);
+        }
 
-        // Sort and get best cost
-        Collections.sort(tournament, Sorter.costComparator());
-        parent[1] = tournament.get(1);
+        // Breed on this thread if we have no pool
+        if (pool == null) {
+            breedChunks(0, chunks, children);
+            return;
+        }
 
-        return parent;
+        // Each breeder takes every n-th chunk
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[breeders.length];
+        for (int i = 0; i < breeders.length; i++) {
+            final int worker = i;
+            tasks[i] = pool.submit(() -> breedChunks(worker, chunks, children));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
     }
 
     /**
-     * Assign crowding distance to list of individuals
+     * Breed the chunks belonging to one breeder
      *
-     * @param members Members to calculate distances for
+     * @param worker Index of the breeder
+     * @param chunks Number of chunks
+     * @param children Number of children in total
      */
 
-    @SuppressWarnings("unchecked")
-    private void crowdingDistanceAssignment(ArrayList<Individual> members) {
-
-        //
-        // DISTANCE
-        //
-
-        ArrayList<Individual> distanceSorted = new ArrayList<>(members);
-        Collections.sort(distanceSorted, Sorter.distanceComparator());
-
-        // Get min/max distances
-        double minDistance = distanceSorted.get(0).getDistance();
-        double maxDistance = distanceSorted.get(distanceSorted.size() - 1).getDistance();
-        double minMaxDistance = maxDistance - minDistance;
-
-        // Make sure to avoid null division
-        if (Math.abs(minMaxDistance) < 1e-4) {
-            minMaxDistance = 1;
-        }
-
-        // Set inf to extremes
-        distanceSorted.get(0).setCrowdingDistance(Double.POSITIVE_INFINITY);
-        distanceSorted.get(distanceSorted.size() - 1).setCrowdingDistance(Double.POSITIVE_INFINITY);
-
-        // Set distances for the other individuals in the list
-        for (int i = 1; i < distanceSorted.size() - 1; i++) {
-
-            // Get neighbour values
-            double previous = distanceSorted.get(i - 1).getDistance();
-            double next = distanceSorted.get(i + 1).getDistance();
-
-            // Calculate the new distance
-            double distanceCrowdingDistance = (next - previous) / minMaxDistance;
-            distanceSorted.get(i).setCrowdingDistance(distanceCrowdingDistance);
+    private void breedChunks(int worker, int chunks, int children) {
+        for (int i = worker; i < chunks; i += breeders.length) {
+            int from = parentCount + i * BREEDING_CHUNK_SIZE;
+            int to = parentCount + Math.min(children, (i + 1) * BREEDING_CHUNK_SIZE);
+            breeders[worker].breed(from, to, chunkRandoms[i]);
         }
+    }
 
-        //
-        // COST
-        //
-
-        ArrayList<Individual> costSorted = new ArrayList<>(members);
-        Collections.sort(distanceSorted, Sorter.costComparator());
-
-        // Get min/max cost
-        double minCost = costSorted.get(0).getCost();
-        double maxCost = costSorted.get(costSorted.size() - 1).getCost();
-        double minMaxCost = maxCost - minCost;
-
-        // Make sure to avoid null division
-        if (Math.abs(minMaxCost) < 1e-4) {
-            minMaxCost = 1;
-        }
-
-        // Set inf to extremes
-        costSorted.get(0).setCrowdingDistance(Double.POSITIVE_INFINITY);
-        costSorted.get(distanceSorted.size() - 1).setCrowdingDistance(Double.POSITIVE_INFINITY);
-
-        // Set cost for the other individuals in the list
-        for (int i = 1; i < costSorted.size() - 1; i++) {
-            // Get neighbour values
-            double previous = costSorted.get(i - 1).getCost();
-            double next = costSorted.get(i + 1).getCost();
-
-            // Get the current crowding distance
-            double currentCrowdingDistance = costSorted.get(i).getCrowdingDistance();
-
-            // Calculate the new cost
-            double costCrowdingDistance = currentCrowdingDistance + ((next - previous) / minMaxCost);
+    /**
+     * Penalize solutions that do not have a unique route. The first copy of a route is kept and gets the best crowding
+     * distance of the copies, so an extreme is never lost. The other copies are marked as duplicates and get crowding
+     * distance 0.0.
+     *
+     * @param count Number of fronts, from the first, to check
+     */
 
-            // Update the crowding distance
-            costSorted.get(i).setCrowdingDistance(costCrowdingDistance);
+    private void penalizeDuplicates(int count) {
+        // Clear the marks from the last generation
+        if (duplicates.length < population.getSize()) {
+            duplicates = new boolean[population.getSize()];
         }
-
-        if (Settings.removeDuplicates) {
-
-            // Penalize solution that do not have unique fitness
-            // Set crowding distance to 0.0 if fitness is not unique
-            for (Individual individual : members) {
-                if (existingFitness(individual) && individual.getCrowdingDistance() != Double.POSITIVE_INFINITY) {
-                    individual.setCrowdingDistance(0.0);
-                } else {
-                    double cd = individual.getCrowdingDistance();
-                    individual.setCrowdingDistance(cd);
+        Arrays.fill(duplicates, false);
+
+        for (int i = 0; i < count; i++) {
+            ParetoFront front = paretoFronts.get(i);
+            Population members = front.getPopulation();
+
+            for (int j = 0; j < front.getSize(); j++) {
+                int slot = front.getMember(j);
+                int original = findDuplicate(members, slot);
+                if (original != -1) {
+                    members.setCrowdingDistance(original, Math.max(members.getCrowdingDistance(original),
+                            members.getCrowdingDistance(slot)));
+                    members.setCrowdingDistance(slot, 0.0);
+                    duplicates[slot] = true;
                 }
             }
         }
-
     }
 
     /**
      * Runs the algorithm one generation
      */
 
-    @SuppressWarnings("unchecked")
     private void evolve() {
 
         //
         // ADULT SELECTION
         //
 
-        // Combine P and Q in R
-        ArrayList<Individual> population = new ArrayList<>(parentPool);
-        population.addAll(childPool);
-
-        // Sort population
+        // P and Q are already combined in R, sort population
         this.nonDominatedSort(population);
 
         // New population
-        ArrayList<Individual> newPopulation = new ArrayList<>();
+        ensureScratch(Settings.populationSize);
+        int newSize = 0;
         int counter = 0;
 
-        // Loop until we have filled up the new population
-        while ((newPopulation.size() + paretoFronts.get(counter).getSize()) < Settings.populationSize) {
-
-            // Get the members of this fronts
-            ArrayList<Individual> paretoMembers = paretoFronts.get(counter).getAllMembers();
+        // Find the fronts that fit entirely in the new population
+        while (counter < paretoFronts.size() - 1 &&
+                (newSize + paretoFronts.get(counter).getSize()) < Settings.populationSize) {
+            newSize += paretoFronts.get(counter).getSize();
+            counter++;
+        }
 
-            // Assign crowding distance to these members
-            this.crowdingDistanceAssignment(paretoMembers);
+        // Assign crowding distance to the members of all these fronts, and the one that overflows
+        crowdingDistance.assign(paretoFronts, counter + 1);
+        if (Settings.removeDuplicates) {
+            this.penalizeDuplicates(counter + 1);
+        }
 
-            // Add the members to the new population
-            newPopulation.addAll(paretoMembers);
+        // Add the members to the new population
+        newSize = 0;
+        for (int i = 0; i < counter; i++) {
+            ParetoFront front = paretoFronts.get(i);
+            System.arraycopy(front.getAllMembers(), 0, survivors, newSize, front.getSize());
+            newSize += front.getSize();
+        }
 
-            // Increase counter
-            counter++;
+        // Get the remaining members
+        ParetoFront lastFront = paretoFronts.get(counter);
+        int remaining = Math.min(lastFront.getSize(), Settings.populationSize - newSize);
 
-            // Make sure to avoid index out of bounds exception
-            if (paretoFronts.size() == counter) {
-                break;
-            }
+        // The front can hold more members than the new population, the sort needs room for all of them
+        if (sortBuffer.length < lastFront.getSize()) {
+            sortBuffer = new int[lastFront.getSize()];
         }
 
-        // Assign crowding distance and Sord the remaining members
-        this.crowdingDistanceAssignment(paretoFronts.get(counter).getAllMembers());
-
-        // Sort them
-        Collections.sort(paretoFronts.get(counter).getAllMembers(), Sorter.crowdingDistanceComparator());
+        // Move the ones with the highest crowding distance to the front. The members are in slot order, so breaking
+        // ties by slot picks the same individuals as the stable sort does
+        if (Settings.selectLastFront) {
+            Sorter.select(lastFront.getAllMembers(), lastFront.getSize(), remaining, sortBuffer,
+                    Sorter.breakTiesByIndex(Sorter.crowdingDistanceComparator(population)));
+        }
+        else {
+            Sorter.sort(lastFront.getAllMembers(), lastFront.getSize(), sortBuffer,
+                    Sorter.crowdingDistanceComparator(population));
+        }
 
         // Add the remaining individuals from the front members
-        newPopulation.addAll(paretoFronts.get(counter).getAllMembers().subList(0,
-                (Settings.populationSize - newPopulation.size())));
-
-        // Set new population as parents
-        this.parentPool = newPopulation;
+        System.arraycopy(lastFront.getAllMembers(), 0, survivors, newSize, remaining);
+        newSize += remaining;
 
         //
         // PARENT SELECTION
@@ -522,16 +525,52 @@ public class Evolver {
 
         // Remove duplicates
         if (Settings.removeDuplicates) {
-            this.removeDups(this.parentPool);
+            newSize = this.removeDups(newSize);
         }
 
+        // Set new population as parents
+        nextPopulation.ensureCapacity(newSize);
+        for (int i = 0; i < newSize; i++) {
+            population.copyTo(survivors[i], nextPopulation, i);
+        }
+        parentCount = newSize;
+
         // Select who gets to mate, and mate them
-        this.parentSelectionAndBreeding();
+        this.parentSelectionAndBreeding(nextPopulation);
+
+        // Evaluate the new children before they are sorted
+        evaluations = evaluator.evaluate(nextPopulation, parentCount, nextPopulation.getSize());
+
+        // Improve some of the children with local search
+        if (memeticStage != null) {
+            localSearchMoves = memeticStage.improve(nextPopulation, parentCount, nextPopulation.getSize(),
+                    random.split());
+        }
+
+        // The next generation becomes the current one, the fronts keep pointing at the sorted one
+        Population sorted = population;
+        population = nextPopulation;
+        nextPopulation = sorted;
 
         // Increase the generation number
         generation++;
     }
 
+    /**
+     * Grow the scratch buffers if needed
+     *
+     * @param size Number of slots needed
+     */
+
+    private void ensureScratch(int size) {
+        if (survivors.length >= size) {
+            return;
+        }
+
+        survivors = Arrays.copyOf(survivors, size);
+        sortBuffer = new int[size];
+    }
+
     /**
      * From a population, pick the best and worst for distance and cost. Used for plotting
      *
@@ -582,6 +621,26 @@ public class Evolver {
         return this.generation;
     }
 
+    /**
+     * Get the number of individuals evaluated in the last generation
+     *
+     * @return Number of evaluations
+     */
+
+    public int getEvaluations() {
+        return this.evaluations;
+    }
+
+    /**
+     * Get the instance we are solving
+     *
+     * @return The instance
+     */
+
+    public Map getMap() {
+        return this.map;
+    }
+
     /**
      * Get all the pareto fronts
      *
@@ -592,6 +651,92 @@ public class Evolver {
         return paretoFronts;
     }
 
+    /**
+     * Pick members of the first front to send to another population. The front is sorted by distance and the members
+     * are picked evenly spread over it, so the extremes are always sent first.
+     *
+     * @param count Most members to pick
+     * @return Copies of the picked members, empty before the first generation
+     */
+
+    public List<Migrant> emigrate(int count) {
+        List<Migrant> migrants = new ArrayList<>();
+        if (paretoFronts.isEmpty() || count <= 0) {
+            return migrants;
+        }
+
+        // Sort the front by distance
+        ParetoFront front = paretoFronts.get(0);
+        Population members = front.getPopulation();
+        int[] order = Arrays.copyOf(front.getAllMembers(), front.getSize());
+        Sorter.sort(order, order.length, new int[order.length], Sorter.distanceComparator(members));
+
+        // Pick evenly spread members, starting with both ends
+        count = Math.min(count, order.length);
+        for (int i = 0; i < count; i++) {
+            int index = count == 1 ? 0 : (int) ((long) i * (order.length - 1) / (count - 1));
+            int slot = order[index];
+            migrants.add(new Migrant(members.getRoute(slot), members.getDistance(slot), members.getCost(slot)));
+        }
+        return migrants;
+    }
+
+    /**
+     * Add members from another population. They are added after the children, and compete with them and the parents
+     * in the next generation.
+     *
+     * @param migrants The members to add
+     */
+
+    public void immigrate(List<Migrant> migrants) {
+        int size = population.getSize();
+        population.ensureCapacity(size + migrants.size());
+        population.setSize(size + migrants.size());
+
+        for (int i = 0; i < migrants.size(); i++) {
+            Migrant migrant = migrants.get(i);
+            if (migrant.getRoute().length != map.getCities()) {
+                throw new IllegalArgumentException("Got a migrant with " + migrant.getRoute().length +
+                        " cities, the instance has " + map.getCities());
+            }
+            population.setRoute(size + i, migrant.getRoute(), migrant.getDistance(), migrant.getCost());
+        }
+    }
+
+    /**
+     * Shut down the worker threads. The results can still be read, but no more generations can be run.
+     */
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Turn printing progress to standard out on or off
+     *
+     * @param verbose True to print
+     */
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Get the front to report, the polished front if Pareto local search has run and the first front otherwise
+     *
+     * @return The front
+     */
+
+    public ParetoFront getFinalFront() {
+        if (polishedFront != null) {
+            return polishedFront;
+        }
+        return paretoFronts.get(0);
+    }
+
     /**
      * Get all children
      *
@@ -599,10 +744,24 @@ public class Evolver {
      */
 
     public ArrayList<Individual> getChildren() {
-        return childPool;
+        ArrayList<Individual> children = new ArrayList<>();
+        for (int i = parentCount; i < population.getSize(); i++) {
+            children.add(population.toIndividual(i));
+        }
+        return children;
     }
 
+    /**
+     * Get all parents
+     *
+     * @return List of parents
+     */
+
     public ArrayList<Individual> getParents() {
-        return parentPool;
+        ArrayList<Individual> parents = new ArrayList<>();
+        for (int i = 0; i < parentCount; i++) {
+            parents.add(population.toIndividual(i));
+        }
+        return parents;
     }
 }
@@ -0,0 +1,180 @@
+package ea;
+
+import nsga.Population;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+public class FitnessCache {
+
+    // Number of independently locked segments, the hash picks the segment
+    private static final int SEGMENTS = 16;
+
+    private Segment[] segments;
+
+    /**
+     * Constructor
+     *
+     * @param capacity Maximum number of routes to remember
+     */
+
+    public FitnessCache(int capacity) {
+        int segmentCapacity = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * Look up the objectives of a route, and store them in the slot if found. An entry only counts as found if both
+     * hashes match, so two routes that share a hash do not share objectives.
+     *
+     * @param hash Hash of the route, see Population.routeHash
+     * @param check Second hash of the route, see Population.routeCheck
+     * @param population Population holding the slot
+     * @param slot The slot
+     * @return True if the route was found
+     */
+
+    public boolean lookup(long hash, long check, Population population, int slot) {
+        return this.segment(hash).lookup(hash, check, population, slot);
+    }
+
+    /**
+     * Remember the objectives of a route, evicting an old route if the cache is full
+     *
+     * @param hash Hash of the route, see Population.routeHash
+     * @param check Second hash of the route, see Population.routeCheck
+     * @param distance Distance of the route
+     * @param cost Cost of the route
+     */
+
+    public void store(long hash, long check, double distance, double cost) {
+        this.segment(hash).store(hash, check, distance, cost);
+    }
+
+    /**
+     * Get the number of lookups that found the route
+     *
+     * @return Number of hits
+     */
+
+    public long getHits() {
+        long hits = 0;
+        for (Segment segment : this.segments) {
+            hits += segment.getHits();
+        }
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups that did not find the route
+     *
+     * @return Number of misses
+     */
+
+    public long getMisses() {
+        long misses = 0;
+        for (Segment segment : this.segments) {
+            misses += segment.getMisses();
+        }
+        return misses;
+    }
+
+    /**
+     * Find the segment for a hash, using the high bits so the segments do not share low bits with the index maps
+     *
+     * @param hash The hash
+     * @return The segment
+     */
+
+    private Segment segment(long hash) {
+        return this.segments[(int) (hash >>> 60) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Part of the cache behind a single lock. Entries are stored in parallel arrays and evicted with the CLOCK policy:
+     * lookups set a reference bit, and the clock hand skips (and clears) referenced entries when looking for one to
+     * evict.
+     */
+
+    private static class Segment {
+
+        // Maps a route hash to its entry
+        private LongIntHashMap index;
+
+        // The entries
+        private long[] keys;
+        private long[] checks;
+        private double[] distances;
+        private double[] costs;
+        private boolean[] referenced;
+        private int size;
+
+        // Next entry to consider for eviction
+        private int hand;
+
+        private long hits;
+        private long misses;
+
+        Segment(int capacity) {
+            this.index = new LongIntHashMap(capacity);
+            this.keys = new long[capacity];
+            this.checks = new long[capacity];
+            this.distances = new double[capacity];
+            this.costs = new double[capacity];
+            this.referenced = new boolean[capacity];
+        }
+
+        synchronized boolean lookup(long hash, long check, Population population, int slot) {
+            // A different route with the same hash is a miss
+            int entry = this.index.getIfAbsent(hash, -1);
+            if (entry == -1 || this.checks[entry] != check) {
+                this.misses++;
+                return false;
+            }
+
+            this.hits++;
+            this.referenced[entry] = true;
+            population.setObjectives(slot, this.distances[entry], this.costs[entry]);
+            return true;
+        }
+
+        synchronized void store(long hash, long check, double distance, double cost) {
+            // Another thread may have stored the same route, or a route with the same hash, keep the one we have
+            if (this.index.containsKey(hash)) {
+                return;
+            }
+
+            // Use a free entry, or evict the first entry not referenced since the hand last passed it
+            int entry;
+            if (this.size < this.keys.length) {
+                entry = this.size++;
+            }
+            else {
+                while (this.referenced[this.hand]) {
+                    this.referenced[this.hand] = false;
+                    this.hand = (this.hand + 1) % this.keys.length;
+                }
+                entry = this.hand;
+                this.hand = (this.hand + 1) % this.keys.length;
+                this.index.remove(this.keys[entry]);
+            }
+
+            this.keys[entry] = hash;
+            this.checks[entry] = check;
+            this.distances[entry] = distance;
+            this.costs[entry] = cost;
+            this.referenced[entry] = false;
+            this.index.put(hash, entry);
+        }
+
+        synchronized long getHits() {
+            return this.hits;
+        }
+
+        synchronized long getMisses() {
+            return this.misses;
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package ea;
 
+import island.Topology;
+import local.Acceptance;
+import parser.MatrixLayout;
+import parser.MatrixPrecision;
+
+import java.util.concurrent.ThreadLocalRandom;
+
 public class Settings {
-    // Number of cities
-    public static int cities = 48;
+    // Instance to solve, see parser.Instances for the formats
+    public static String instance = "xlsx";
 
     // Population size
     public static int populationSize = 2000;
@@ -36,5 +43,181 @@ public class Settings {
 
     // Use best first parent selection
     public static boolean bestParentSelection = false;
-}
 
+    // Use the O(N log N) bi-objective sort instead of the O(N^2) one
+    public static boolean fastNonDominatedSort = true;
+
+    // Stop sorting once enough individuals are ranked to fill the parent pool
+    public static boolean earlyFrontCutoff = true;
+
+    // Truncate the overflowing front with quickselect instead of sorting all of it
+    public static boolean selectLastFront = true;
+
+    // Number of threads used to breed and evaluate children, 1 runs everything on the calling thread
+    public static int threads = Runtime.getRuntime().availableProcessors();
+
+    // Check every delta evaluation against a full evaluation of the route (slow, for debugging)
+    public static boolean verifyDeltaEvaluation = false;
+
+    // Check every crowding distance against the reference implementation (slow, for debugging)
+    public static boolean verifyCrowdingDistance = false;
+
+    // Number of routes to remember the objectives of, 0 turns the fitness cache off
+    public static int fitnessCacheSize = 0;
+
+    // Directory to store the compiled distance and cost matrices in, null to parse the xlsx files on every start
+    public static String matrixCacheDirectory = "cache";
+
+    // How the distance and cost matrices are stored in memory
+    public static MatrixLayout matrixLayout = MatrixLayout.INTERLEAVED;
+
+    // Compute the edges of coordinate based instances when needed instead of storing matrices
+    public static boolean lazyCoordinates = false;
+
+    // Number of recently used edges each thread remembers when computing edges from coordinates
+    public static int edgeCacheSize = 4096;
+
+    // How each value in the matrices is stored, the worst case error is printed if it is not exact
+    public static MatrixPrecision matrixPrecision = MatrixPrecision.DOUBLE;
+
+    // Number of nearest cities found for each city, by distance and by cost, 0 for the default of 10. The lists are
+    // only built once a feature that uses them is turned on
+    public static int neighbourListSize = 0;
+
+    // Chance that a mutation swaps a city next to one of its nearest neighbours instead of swapping two random cities,
+    // 0 turns it off
+    public static double neighbourMutation = 0.0;
+
+    // Chance for each child to be improved with 2-opt and Or-opt local search, 0 turns the memetic stage off
+    public static double localSearch = 0.0;
+
+    // Milliseconds the local search may use each generation, 0 for no limit
+    public static int localSearchTime = 50;
+
+    // How the local search accepts moves
+    public static Acceptance localSearchAcceptance = Acceptance.SCALARIZED;
+
+    // Milliseconds to polish the final front with Pareto local search, 0 turns it off
+    public static int paretoLocalSearchTime = 0;
+
+    // Most routes the Pareto local search keeps, the most crowded ones are dropped first
+    public static int paretoArchiveSize = 1000;
+
+    // Number of islands in island mode, each runs its own population on its own thread (island.Archipelago) or in
+    // its own worker process (island.Coordinator)
+    public static int islands = Runtime.getRuntime().availableProcessors();
+
+    // Generations between each time the islands send and take in migrants
+    public static int migrationInterval = 10;
+
+    // Number of first front members each island sends when migrating
+    public static int migrants = 5;
+
+    // Which island each island sends its migrants to
+    public static Topology migrationTopology = Topology.RING;
+
+    // Port the coordinator of worker processes (island.Coordinator) listens on, only on the loopback address. 0 picks
+    // a free port
+    public static int coordinatorPort = 0;
+
+    // Let the coordinator start the worker processes itself, instead of waiting for workers started by hand
+    public static boolean launchWorkers = true;
+
+    // Seed for the random number generator, the same seed and settings give the same run
+    public static long seed = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * Apply command line arguments to the settings
+     *
+     * @param args From sys
+     */
+
+    public static void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            // Accept both --name value and --name=value
+            String name = args[i];
+            String value;
+            int equals = name.indexOf('=');
+            if (equals != -1) {
+                value = name.substring(equals + 1);
+                name = name.substring(0, equals);
+            }
+            else if (i + 1 < args.length) {
+                value = args[++i];
+            }
+            else {
+                throw new IllegalArgumentException("Missing value for argument: " + name);
+            }
+
+            if (name.equals("--seed")) {
+                seed = Long.parseLong(value);
+            }
+            else if (name.equals("--instance")) {
+                instance = value;
+            }
+            else if (name.equals("--population")) {
+                populationSize = Integer.parseInt(value);
+            }
+            else if (name.equals("--generations")) {
+                maxGeneration = Integer.parseInt(value);
+            }
+            else if (name.equals("--threads")) {
+                threads = Integer.parseInt(value);
+            }
+            else if (name.equals("--fitness-cache")) {
+                fitnessCacheSize = Integer.parseInt(value);
+            }
+            else if (name.equals("--matrix-layout")) {
+                matrixLayout = MatrixLayout.valueOf(value.toUpperCase());
+            }
+            else if (name.equals("--lazy-coordinates")) {
+                lazyCoordinates = Boolean.parseBoolean(value);
+            }
+            else if (name.equals("--matrix-precision")) {
+                matrixPrecision = MatrixPrecision.valueOf(value.toUpperCase());
+            }
+            else if (name.equals("--neighbours")) {
+                neighbourListSize = Integer.parseInt(value);
+            }
+            else if (name.equals("--neighbour-mutation")) {
+                neighbourMutation = Double.parseDouble(value);
+            }
+            else if (name.equals("--local-search")) {
+                localSearch = Double.parseDouble(value);
+            }
+            else if (name.equals("--local-search-time")) {
+                localSearchTime = Integer.parseInt(value);
+            }
+            else if (name.equals("--local-search-acceptance")) {
+                localSearchAcceptance = Acceptance.valueOf(value.toUpperCase());
+            }
+            else if (name.equals("--pareto-local-search")) {
+                paretoLocalSearchTime = Integer.parseInt(value);
+            }
+            else if (name.equals("--pareto-archive")) {
+                paretoArchiveSize = Integer.parseInt(value);
+            }
+            else if (name.equals("--islands")) {
+                islands = Integer.parseInt(value);
+            }
+            else if (name.equals("--migration-interval")) {
+                migrationInterval = Integer.parseInt(value);
+            }
+            else if (name.equals("--migrants")) {
+                migrants = Integer.parseInt(value);
+            }
+            else if (name.equals("--topology")) {
+                migrationTopology = Topology.valueOf(value.toUpperCase());
+            }
+            else if (name.equals("--port")) {
+                coordinatorPort = Integer.parseInt(value);
+            }
+            else if (name.equals("--launch-workers")) {
+                launchWorkers = Boolean.parseBoolean(value);
+            }
+            else {
+                throw new IllegalArgumentException("Unknown argument: " + name);
+            }
+        }
+    }
+}
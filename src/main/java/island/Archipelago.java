@@ -0,0 +1,205 @@
+package island;
+
+import ea.Evolver;
+import ea.Settings;
+import local.ParetoLocalSearch;
+import nsga.Population;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import parento.ParetoFront;
+import parser.Instances;
+import parser.Map;
+import sort.NonDominatedSorter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class Archipelago {
+
+    // The instance we are solving
+    private Map map;
+
+    private Island[] islands;
+
+    /**
+     * Constructor. Every island gets its own population of populationSize and its own seed, split off the seed in
+     * the settings.
+     *
+     * @param map The instance to solve
+     * @param count Number of islands
+     */
+
+    public Archipelago(Map map, int count) {
+        this.map = map;
+
+        SplittableRandom random = new SplittableRandom(Settings.seed);
+        this.islands = new Island[Math.max(1, count)];
+        for (int i = 0; i < this.islands.length; i++) {
+            Evolver evolver = new Evolver(map, random.nextLong(), 1);
+            evolver.setVerbose(false);
+            this.islands[i] = new Island(i, this, evolver, random.split());
+        }
+    }
+
+    /**
+     * Main method
+     *
+     * @param args From sys
+     */
+
+    public static void main(String[] args) throws IOException {
+        Settings.parseArguments(args);
+
+        // Load the instance
+        Map map = Instances.load(Settings.instance);
+
+        Archipelago archipelago = new Archipelago(map, Settings.islands);
+        ParetoFront front = archipelago.run();
+        report(front);
+    }
+
+    /**
+     * Run all islands at the same time, one thread each, and merge their final fronts. Migrants arrive whenever the
+     * sending island gets to them, so runs with more than one island are not repeatable.
+     *
+     * @return The merged front, polished with Pareto local search if turned on in the settings
+     */
+
+    public ParetoFront run() {
+        System.out.println("Seed: " + Settings.seed + ", islands: " + this.islands.length);
+        long start = System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(this.islands.length);
+        try {
+            ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[this.islands.length];
+            for (int i = 0; i < this.islands.length; i++) {
+                tasks[i] = pool.submit(this.islands[i]);
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+
+            for (int i = 0; i < this.islands.length; i++) {
+                System.out.println("[Island " + i + "]  FRONT: " +
+                        this.islands[i].getEvolver().getFinalFront().getSize() + " SENT: " +
+                        this.islands[i].getSent() + " RECEIVED: " + this.islands[i].getReceived());
+            }
+            System.out.println("[Islands]   " + (System.nanoTime() - start) / 1000000 + " ms");
+
+            // Merge the fronts of all islands
+            List<Migrant> members = new ArrayList<>();
+            for (Island island : this.islands) {
+                members.addAll(island.getEvolver().emigrate(Integer.MAX_VALUE));
+            }
+            ParetoFront front = merge(this.map, members);
+
+            // Polish the merged front, with all the threads
+            return polish(this.map, front, pool, this.islands.length);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Find the non-dominated members among routes from several populations. The same tour is only kept once.
+     *
+     * @param map The instance
+     * @param members The routes
+     * @return The first front of the routes
+     */
+
+    public static ParetoFront merge(Map map, List<Migrant> members) {
+        Population population = new Population(Math.max(1, members.size()), map);
+        population.setSize(members.size());
+
+        // Add the routes, skipping tours we already have
+        LongIntHashMap seen = new LongIntHashMap();
+        int size = 0;
+        for (Migrant member : members) {
+            population.setRoute(size, member.getRoute(), member.getDistance(), member.getCost());
+            long hash = population.routeHash(size);
+            int original = seen.getIfAbsent(hash, -1);
+            if (original != -1 && population.sameRoute(size, population, original)) {
+                continue;
+            }
+            if (original == -1) {
+                seen.put(hash, size);
+            }
+            size++;
+        }
+        population.setSize(size);
+
+        if (size == 0) {
+            return new ParetoFront(0, population);
+        }
+        return new NonDominatedSorter().sort(population, 1).get(0);
+    }
+
+    /**
+     * Polish a merged front with Pareto local search, if turned on in the settings
+     *
+     * @param map The instance
+     * @param front The front
+     * @param pool Pool to run the search on, null runs it on the calling thread
+     * @param threads Number of threads in the pool
+     * @return The polished front, or the same front if turned off
+     */
+
+    static ParetoFront polish(Map map, ParetoFront front, ForkJoinPool pool, int threads) {
+        if (Settings.paretoLocalSearchTime <= 0) {
+            return front;
+        }
+
+        ParetoLocalSearch search = new ParetoLocalSearch(map, pool, threads, Settings.paretoArchiveSize);
+        ParetoFront polished = search.run(front, System.nanoTime() + Settings.paretoLocalSearchTime * 1000000L);
+        System.out.println("[Pareto LS] ROUNDS: " + search.getRounds());
+        return polished;
+    }
+
+    /**
+     * Print the best values of a front
+     *
+     * @param front The front
+     */
+
+    static void report(ParetoFront front) {
+        double distance = Double.POSITIVE_INFINITY;
+        double cost = Double.POSITIVE_INFINITY;
+        Population population = front.getPopulation();
+        for (int i = 0; i < front.getSize(); i++) {
+            distance = Math.min(distance, population.getDistance(front.getMember(i)));
+            cost = Math.min(cost, population.getCost(front.getMember(i)));
+        }
+
+        System.out.println("----------------------------------------");
+        System.out.println("[Front]    SIZE: " + front.getSize());
+        System.out.println("[Distance] BEST: " + distance);
+        System.out.println("[Cost]     BEST: " + cost);
+        System.out.println("----------------------------------------");
+    }
+
+    /**
+     * Get the number of islands
+     *
+     * @return Number of islands
+     */
+
+    public int getSize() {
+        return this.islands.length;
+    }
+
+    /**
+     * Get an island
+     *
+     * @param index Index of the island
+     * @return The island
+     */
+
+    public Island getIsland(int index) {
+        return this.islands[index];
+    }
+}
@@ -0,0 +1,326 @@
+package island;
+
+import ea.Settings;
+import parento.ParetoFront;
+import parser.Instances;
+import parser.Map;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+public class Coordinator {
+
+    // Milliseconds to wait for all the workers to connect
+    private static final int CONNECT_TIMEOUT = 60000;
+
+    // The instance we are solving
+    private Map map;
+
+    // Command line arguments, passed on to the workers
+    private String[] args;
+
+    // One connection for each worker that connected
+    private Connection[] connections;
+
+    // Worker processes we launched
+    private List<Process> processes;
+
+    // Random number stream for picking where to send migrants
+    private SplittableRandom random;
+
+    /**
+     * Constructor
+     *
+     * @param map The instance to solve
+     * @param args Command line arguments, the workers apply the same ones
+     */
+
+    public Coordinator(Map map, String[] args) {
+        this.map = map;
+        this.args = args;
+        this.processes = new ArrayList<>();
+        this.random = new SplittableRandom(Settings.seed);
+    }
+
+    /**
+     * Main method
+     *
+     * @param args From sys
+     */
+
+    public static void main(String[] args) throws IOException {
+        Settings.parseArguments(args);
+
+        // Load the instance
+        Map map = Instances.load(Settings.instance);
+
+        Coordinator coordinator = new Coordinator(map, args);
+        Archipelago.report(coordinator.run());
+    }
+
+    /**
+     * Run one island in each worker process and merge their final fronts. The coordinator only listens on the
+     * loopback address. Migrants are passed on between the workers along the topology in the settings. If a worker
+     * dies, migrants are passed on to the next worker instead, and the last migrants it sent stand in for its front.
+     *
+     * @return The merged front, polished with Pareto local search if turned on in the settings
+     * @throws IOException If no worker connects
+     */
+
+    public ParetoFront run() throws IOException {
+        int workers = Math.max(1, Settings.islands);
+        System.out.println("Seed: " + Settings.seed + ", workers: " + workers);
+        long start = System.nanoTime();
+
+        try (ServerSocket server = new ServerSocket(Settings.coordinatorPort, workers,
+                InetAddress.getLoopbackAddress())) {
+            System.out.println("[Coordinator] Listening on port " + server.getLocalPort());
+            if (Settings.launchWorkers) {
+                this.launch(workers, server.getLocalPort());
+            }
+            this.accept(server, workers);
+        }
+
+        // Follow each worker on its own thread
+        Thread[] readers = new Thread[this.connections.length];
+        for (int i = 0; i < this.connections.length; i++) {
+            final Connection connection = this.connections[i];
+            readers[i] = new Thread(() -> this.read(connection), "coordinator-reader-" + connection.index);
+            readers[i].start();
+        }
+        for (Thread reader : readers) {
+            try {
+                reader.join();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the workers", e);
+            }
+        }
+
+        // Everyone is done, close the connections and let the processes exit
+        for (Connection connection : this.connections) {
+            connection.close();
+        }
+        this.awaitProcesses();
+
+        // Merge the fronts, the dead workers are represented by their last migrants
+        List<Migrant> members = new ArrayList<>();
+        for (Connection connection : this.connections) {
+            System.out.println("[Worker " + connection.index + "]  " + (connection.front != null ? "FRONT: " +
+                    connection.front.size() : "DIED, LAST MIGRANTS: " + connection.lastMigrants.size()) +
+                    " SENT: " + connection.sent);
+            members.addAll(connection.front != null ? connection.front : connection.lastMigrants);
+        }
+        System.out.println("[Workers]   " + (System.nanoTime() - start) / 1000000 + " ms");
+        ParetoFront front = Archipelago.merge(this.map, members);
+
+        // Polish the merged front, with the threads of this process
+        int threads = Math.max(1, Settings.threads);
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            return Archipelago.polish(this.map, front, pool, threads);
+        }
+        finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Start the worker processes, with the same java and class path as this process
+     *
+     * @param workers Number of workers
+     * @param port Port to connect to
+     * @throws IOException If a process can not be started
+     */
+
+    private void launch(int workers, int port) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (int i = 0; i < workers; i++) {
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    Worker.class.getName(), "--port", Integer.toString(port));
+            builder.inheritIO();
+            this.processes.add(builder.start());
+        }
+    }
+
+    /**
+     * Wait for the workers to connect, and send each of them its island. Gives up waiting once CONNECT_TIMEOUT has
+     * passed for all of them together, and carries on with the workers that did connect.
+     *
+     * @param server The server socket
+     * @param workers Number of workers to wait for
+     * @throws IOException If no worker connects
+     */
+
+    private void accept(ServerSocket server, int workers) throws IOException {
+        List<Connection> connected = new ArrayList<>();
+
+        // One deadline for all the workers, each accept only waits for the time that is left
+        long deadline = System.nanoTime() + CONNECT_TIMEOUT * 1000000L;
+
+        try {
+            while (connected.size() < workers) {
+                long remaining = (deadline - System.nanoTime()) / 1000000;
+                if (remaining <= 0) {
+                    throw new SocketTimeoutException("Connect deadline passed");
+                }
+                server.setSoTimeout((int) remaining);
+                Socket socket = server.accept();
+                Connection connection = new Connection(connected.size(), socket);
+                Protocol.writeConfig(connection.out, connection.index, this.random.nextLong(), this.args);
+                connected.add(connection);
+            }
+        }
+        catch (SocketTimeoutException e) {
+            if (connected.isEmpty()) {
+                throw new IOException("No workers connected within " + CONNECT_TIMEOUT + " ms", e);
+            }
+            System.out.println("[Coordinator] Only " + connected.size() + " of " + workers + " workers connected");
+        }
+
+        this.connections = connected.toArray(new Connection[connected.size()]);
+    }
+
+    /**
+     * Read messages from a worker until it sends its front or dies
+     *
+     * @param connection The worker
+     */
+
+    private void read(Connection connection) {
+        try {
+            while (true) {
+                byte type = connection.in.readByte();
+                if (type != Protocol.MIGRANTS && type != Protocol.FRONT) {
+                    throw new IOException("Unexpected message: " + type);
+                }
+
+                List<Migrant> migrants = Protocol.readMigrants(connection.in, this.map.getCities());
+                if (type == Protocol.FRONT) {
+                    connection.front = migrants;
+                    break;
+                }
+
+                connection.lastMigrants = migrants;
+                connection.sent += migrants.size();
+                this.forward(connection.index, migrants);
+            }
+        }
+        catch (IOException e) {
+            System.out.println("[Coordinator] Lost worker " + connection.index + ": " + e);
+        }
+        finally {
+            connection.done = true;
+        }
+    }
+
+    /**
+     * Pass migrants on to the worker the topology picks. If that worker is done or dead, the next one that is still
+     * running gets them, and if there are none they are dropped.
+     *
+     * @param source Index of the sending worker
+     * @param migrants The migrants
+     */
+
+    private void forward(int source, List<Migrant> migrants) {
+        int count = this.connections.length;
+        if (count < 2) {
+            return;
+        }
+
+        int target;
+        synchronized (this.random) {
+            target = Settings.migrationTopology.target(source, count, this.random);
+        }
+
+        for (int i = 0; i < count; i++) {
+            Connection connection = this.connections[(target + i) % count];
+            if (connection.index == source || connection.done) {
+                continue;
+            }
+            try {
+                synchronized (connection) {
+                    Protocol.writeMigrants(connection.out, Protocol.MIGRANTS, migrants, this.map.getCities());
+                }
+                return;
+            }
+            catch (IOException e) {
+                // The reader of that worker finds out, try the next one
+            }
+        }
+    }
+
+    /**
+     * Wait a little for the worker processes to exit, and stop the ones that do not
+     */
+
+    private void awaitProcesses() {
+        for (Process process : this.processes) {
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Connection to one worker
+     */
+
+    private static class Connection {
+
+        private int index;
+        private Socket socket;
+        private DataInputStream in;
+        private DataOutputStream out;
+
+        // Set once the worker has sent its front or died
+        private volatile boolean done;
+
+        // The final front, null until the worker sends it
+        private List<Migrant> front;
+
+        // The last migrants the worker sent, used in place of the front if it dies
+        private List<Migrant> lastMigrants;
+        private int sent;
+
+        Connection(int index, Socket socket) throws IOException {
+            this.index = index;
+            this.socket = socket;
+            this.socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.lastMigrants = new ArrayList<>();
+        }
+
+        void close() {
+            try {
+                this.socket.close();
+            }
+            catch (IOException e) {
+                // Nothing more to do with it
+            }
+        }
+    }
+}
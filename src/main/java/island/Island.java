@@ -0,0 +1,124 @@
+package island;
+
+import ea.Evolver;
+import ea.Settings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class Island implements Runnable {
+
+    private int index;
+    private Archipelago archipelago;
+
+    // The population of this island, run on a single thread
+    private Evolver evolver;
+
+    // Migrants sent to this island that it has not taken in yet
+    private ConcurrentLinkedQueue<Migrant> inbox;
+
+    // Random number stream for picking where to send migrants
+    private SplittableRandom random;
+
+    // Number of migrants sent and taken in
+    private int sent;
+    private int received;
+
+    /**
+     * Constructor
+     *
+     * @param index Index of this island
+     * @param archipelago The archipelago the island belongs to
+     * @param evolver The population of this island
+     * @param random Random number stream for picking where to send migrants
+     */
+
+    public Island(int index, Archipelago archipelago, Evolver evolver, SplittableRandom random) {
+        this.index = index;
+        this.archipelago = archipelago;
+        this.evolver = evolver;
+        this.random = random;
+        this.inbox = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Run all the generations, migrating every migrationInterval generations
+     */
+
+    @Override
+    public void run() {
+        this.evolver.initialize();
+
+        while (this.evolver.getGeneration() < Settings.maxGeneration) {
+            this.evolver.runGeneration();
+
+            // No point in migrating after the last generation
+            int generation = this.evolver.getGeneration();
+            if (generation % Settings.migrationInterval == 0 && generation < Settings.maxGeneration) {
+                this.migrate();
+            }
+        }
+    }
+
+    /**
+     * Take in the migrants that have arrived, and send some of the first front to another island
+     */
+
+    private void migrate() {
+        List<Migrant> arrived = new ArrayList<>();
+        for (Migrant migrant = this.inbox.poll(); migrant != null; migrant = this.inbox.poll()) {
+            arrived.add(migrant);
+        }
+        this.evolver.immigrate(arrived);
+        this.received += arrived.size();
+
+        if (this.archipelago.getSize() > 1) {
+            List<Migrant> migrants = this.evolver.emigrate(Settings.migrants);
+            int target = Settings.migrationTopology.target(this.index, this.archipelago.getSize(), this.random);
+            this.archipelago.getIsland(target).receive(migrants);
+            this.sent += migrants.size();
+        }
+    }
+
+    /**
+     * Queue migrants for this island, they are taken in at its next migration. Safe to call from any thread.
+     *
+     * @param migrants The migrants
+     */
+
+    public void receive(List<Migrant> migrants) {
+        this.inbox.addAll(migrants);
+    }
+
+    /**
+     * Get the population of this island
+     *
+     * @return The evolver
+     */
+
+    public Evolver getEvolver() {
+        return this.evolver;
+    }
+
+    /**
+     * Get the number of migrants this island has sent
+     *
+     * @return Number of migrants
+     */
+
+    public int getSent() {
+        return this.sent;
+    }
+
+    /**
+     * Get the number of migrants this island has taken in
+     *
+     * @return Number of migrants
+     */
+
+    public int getReceived() {
+        return this.received;
+    }
+}
@@ -0,0 +1,53 @@
+package island;
+
+public class Migrant {
+
+    // The route, and its objectives so the receiving population does not have to evaluate it
+    private int[] route;
+    private double distance;
+    private double cost;
+
+    /**
+     * Constructor
+     *
+     * @param route The route
+     * @param distance The distance
+     * @param cost The cost
+     */
+
+    public Migrant(int[] route, double distance, double cost) {
+        this.route = route;
+        this.distance = distance;
+        this.cost = cost;
+    }
+
+    /**
+     * Get the route
+     *
+     * @return The route
+     */
+
+    public int[] getRoute() {
+        return this.route;
+    }
+
+    /**
+     * Get the distance
+     *
+     * @return The distance
+     */
+
+    public double getDistance() {
+        return this.distance;
+    }
+
+    /**
+     * Get the cost
+     *
+     * @return The cost
+     */
+
+    public double getCost() {
+        return this.cost;
+    }
+}
@@ -0,0 +1,142 @@
+package island;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class Protocol {
+
+    // Coordinator to worker: island index, seed and the command line arguments to run with
+    public static final byte CONFIG = 1;
+
+    // Both ways: migrants from the first front of a worker
+    public static final byte MIGRANTS = 2;
+
+    // Worker to coordinator: the final first front, the worker disconnects after it
+    public static final byte FRONT = 3;
+
+    /**
+     * Number of bits needed for each city id in a route
+     *
+     * @param cities Number of cities
+     * @return Bits for each id
+     */
+
+    private static int bitsPerCity(int cities) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(cities));
+    }
+
+    /**
+     * Write the config message
+     *
+     * @param out Stream to write to
+     * @param index Index of the island
+     * @param seed Seed for the island
+     * @param args Command line arguments for the worker to apply
+     * @throws IOException If the stream fails
+     */
+
+    public static void writeConfig(DataOutputStream out, int index, long seed, String[] args) throws IOException {
+        out.writeByte(CONFIG);
+        out.writeInt(index);
+        out.writeLong(seed);
+        out.writeInt(args.length);
+        for (String arg : args) {
+            out.writeUTF(arg);
+        }
+        out.flush();
+    }
+
+    /**
+     * Write a message with migrants. Each route is packed with just enough bits for the largest city id, 6 bits for
+     * each city with 48 cities, followed by the objectives so the receiver does not evaluate it again.
+     *
+     * @param out Stream to write to
+     * @param type MIGRANTS or FRONT
+     * @param migrants The migrants
+     * @param cities Number of cities in each route
+     * @throws IOException If the stream fails
+     */
+
+    public static void writeMigrants(DataOutputStream out, byte type, List<Migrant> migrants, int cities)
+            throws IOException {
+        int bits = bitsPerCity(cities);
+        byte[] packed = new byte[(bits * cities + 7) / 8];
+
+        out.writeByte(type);
+        out.writeInt(migrants.size());
+        for (Migrant migrant : migrants) {
+            if (migrant.getRoute().length != cities) {
+                throw new IllegalArgumentException("Got a migrant with " + migrant.getRoute().length +
+                        " cities, expected " + cities);
+            }
+            out.writeDouble(migrant.getDistance());
+            out.writeDouble(migrant.getCost());
+
+            // Pack the ids, lowest bits first
+            Arrays.fill(packed, (byte) 0);
+            long position = 0;
+            for (int city : migrant.getRoute()) {
+                for (int bit = 0; bit < bits; bit++, position++) {
+                    if ((city & (1 << bit)) != 0) {
+                        packed[(int) (position >>> 3)] |= 1 << (int) (position & 7);
+                    }
+                }
+            }
+            out.write(packed);
+        }
+        out.flush();
+    }
+
+    /**
+     * Read the migrants of a MIGRANTS or FRONT message, after the type. Routes that are not a permutation of the
+     * cities are rejected.
+     *
+     * @param in Stream to read from
+     * @param cities Number of cities in each route
+     * @return The migrants
+     * @throws IOException If the stream fails or holds a broken route
+     */
+
+    public static List<Migrant> readMigrants(DataInputStream in, int cities) throws IOException {
+        int bits = bitsPerCity(cities);
+        byte[] packed = new byte[(bits * cities + 7) / 8];
+
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Got a negative number of migrants: " + count);
+        }
+
+        List<Migrant> migrants = new ArrayList<>();
+        boolean[] seen = new boolean[cities + 1];
+        for (int i = 0; i < count; i++) {
+            double distance = in.readDouble();
+            double cost = in.readDouble();
+            in.readFully(packed);
+
+            // Unpack the ids, and make sure each city is there once
+            Arrays.fill(seen, false);
+            int[] route = new int[cities];
+            long position = 0;
+            for (int j = 0; j < cities; j++) {
+                int city = 0;
+                for (int bit = 0; bit < bits; bit++, position++) {
+                    if ((packed[(int) (position >>> 3)] & (1 << (int) (position & 7))) != 0) {
+                        city |= 1 << bit;
+                    }
+                }
+                if (city < 1 || city > cities || seen[city]) {
+                    throw new IOException("Got a route that is not a permutation of the cities");
+                }
+                seen[city] = true;
+                route[j] = city;
+            }
+
+            migrants.add(new Migrant(route, distance, cost));
+        }
+        return migrants;
+    }
+}
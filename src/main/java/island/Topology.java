@@ -0,0 +1,34 @@
+package island;
+
+import java.util.SplittableRandom;
+
+public enum Topology {
+
+    // Each island sends to the next one, the last one to the first
+    RING {
+        @Override
+        public int target(int island, int islands, SplittableRandom random) {
+            return (island + 1) % islands;
+        }
+    },
+
+    // Each island sends to a random other island every time
+    RANDOM {
+        @Override
+        public int target(int island, int islands, SplittableRandom random) {
+            int target = random.nextInt(islands - 1);
+            return target >= island ? target + 1 : target;
+        }
+    };
+
+    /**
+     * Pick the island to send migrants to
+     *
+     * @param island The sending island
+     * @param islands Number of islands, at least 2
+     * @param random Random number stream of the sending island
+     * @return The receiving island
+     */
+
+    public abstract int target(int island, int islands, SplittableRandom random);
+}
@@ -0,0 +1,149 @@
+package island;
+
+import ea.Evolver;
+import ea.Settings;
+import parser.Instances;
+import parser.Map;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class Worker {
+
+    private Socket socket;
+    private DataInputStream in;
+    private DataOutputStream out;
+
+    // The instance we are solving
+    private Map map;
+
+    // The population of this worker
+    private Evolver evolver;
+    private int index;
+
+    // Migrants from the coordinator that have not been taken in yet
+    private ConcurrentLinkedQueue<Migrant> inbox;
+
+    /**
+     * Main method. Connects to a coordinator on this machine and runs the island it is given.
+     *
+     * @param args From sys, --port with the port of the coordinator
+     */
+
+    public static void main(String[] args) throws IOException {
+        Settings.parseArguments(args);
+
+        Worker worker = new Worker(Settings.coordinatorPort);
+        worker.run();
+    }
+
+    /**
+     * Connect to the coordinator and get the island to run
+     *
+     * @param port Port of the coordinator, on the loopback address
+     * @throws IOException If the connection fails or the config is broken
+     */
+
+    public Worker(int port) throws IOException {
+        this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        this.socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+
+        // Apply the settings of the coordinator
+        if (this.in.readByte() != Protocol.CONFIG) {
+            throw new IOException("Expected the config from the coordinator");
+        }
+        this.index = this.in.readInt();
+        long seed = this.in.readLong();
+        String[] args = new String[this.in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = this.in.readUTF();
+        }
+        Settings.parseArguments(args);
+
+        // Load the instance and create the population, sharing the cores with the other workers
+        this.map = Instances.load(Settings.instance);
+        this.evolver = new Evolver(this.map, seed, Math.max(1, Settings.threads / Math.max(1, Settings.islands)));
+        this.evolver.setVerbose(false);
+        this.inbox = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Run all the generations, sending migrants to the coordinator every migrationInterval generations, and send the
+     * final front
+     *
+     * @throws IOException If the connection fails
+     */
+
+    public void run() throws IOException {
+        // Take migrants off the connection in the background
+        Thread reader = new Thread(() -> this.read(), "worker-" + this.index + "-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            this.evolver.initialize();
+            while (this.evolver.getGeneration() < Settings.maxGeneration) {
+                this.evolver.runGeneration();
+
+                // No point in migrating after the last generation
+                int generation = this.evolver.getGeneration();
+                if (generation % Settings.migrationInterval == 0 && generation < Settings.maxGeneration) {
+                    this.migrate();
+                }
+            }
+
+            Protocol.writeMigrants(this.out, Protocol.FRONT, this.evolver.emigrate(Integer.MAX_VALUE),
+                    this.map.getCities());
+        }
+        finally {
+            this.evolver.close();
+            this.socket.close();
+        }
+    }
+
+    /**
+     * Take in the migrants that have arrived, and send some of the first front to the coordinator
+     *
+     * @throws IOException If the connection fails
+     */
+
+    private void migrate() throws IOException {
+        List<Migrant> arrived = new ArrayList<>();
+        for (Migrant migrant = this.inbox.poll(); migrant != null; migrant = this.inbox.poll()) {
+            arrived.add(migrant);
+        }
+        this.evolver.immigrate(arrived);
+
+        Protocol.writeMigrants(this.out, Protocol.MIGRANTS, this.evolver.emigrate(Settings.migrants),
+                this.map.getCities());
+    }
+
+    /**
+     * Read migrants from the coordinator until the connection closes
+     */
+
+    private void read() {
+        try {
+            while (true) {
+                byte type = this.in.readByte();
+                if (type != Protocol.MIGRANTS) {
+                    throw new IOException("Unexpected message from the coordinator: " + type);
+                }
+                this.inbox.addAll(Protocol.readMigrants(this.in, this.map.getCities()));
+            }
+        }
+        catch (IOException e) {
+            // The connection is closed when we are done, or the coordinator went away
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package local;
+
+public enum Acceptance {
+
+    // Accept moves that improve a weighted sum of the objectives, each route gets its own random weight
+    SCALARIZED {
+        @Override
+        public boolean accepts(double distanceDelta, double costDelta, double weight) {
+            return weight * distanceDelta + (1.0 - weight) * costDelta < -EPSILON;
+        }
+    },
+
+    // Only accept moves that make neither objective worse and at least one of them better
+    PARETO {
+        @Override
+        public boolean accepts(double distanceDelta, double costDelta, double weight) {
+            return distanceDelta <= EPSILON && costDelta <= EPSILON &&
+                    (distanceDelta < -EPSILON || costDelta < -EPSILON);
+        }
+    };
+
+    // Smallest change that counts, so rounding errors do not make moves go back and forth
+    private static final double EPSILON = 1e-12;
+
+    /**
+     * Check if a move should be made
+     *
+     * @param distanceDelta Change in distance, relative to the distance of the route before the search
+     * @param costDelta Change in cost, relative to the cost of the route before the search
+     * @param weight Weight of the distance, between 0 and 1
+     * @return True to make the move
+     */
+
+    public abstract boolean accepts(double distanceDelta, double costDelta, double weight);
+}
@@ -0,0 +1,359 @@
+package local;
+
+import nsga.Population;
+import parser.Map;
+import parser.NeighbourLists;
+
+public class LocalSearch {
+
+    // Longest segment Or-opt moves
+    private static final int MAX_SEGMENT = 3;
+
+    private Map map;
+    private NeighbourLists neighbours;
+    private Acceptance acceptance;
+
+    // The route being improved, and the position of each city id in it
+    private int[] tour;
+    private int[] positions;
+    private int cities;
+
+    // Cities to look at again, as a ring. Cities not in it have their don't-look bit set
+    private int[] queue;
+    private boolean[] queued;
+    private int head;
+    private int queueSize;
+
+    // Objectives of the route being improved, and the values the changes are measured relative to
+    private double distance;
+    private double cost;
+    private double distanceScale;
+    private double costScale;
+    private double weight;
+
+    // Segment being moved by Or-opt
+    private int[] segment;
+
+    /**
+     * Constructor
+     *
+     * @param map The instance, its neighbour lists are built on first use
+     * @param acceptance How moves are accepted
+     */
+
+    public LocalSearch(Map map, Acceptance acceptance) {
+        this.map = map;
+        this.neighbours = map.getNeighbours();
+        this.acceptance = acceptance;
+
+        this.cities = map.getCities();
+        this.tour = new int[this.cities];
+        this.positions = new int[this.cities + 1];
+        this.queue = new int[this.cities];
+        this.queued = new boolean[this.cities + 1];
+        this.segment = new int[MAX_SEGMENT];
+    }
+
+    /**
+     * Improve the route in a slot with 2-opt and Or-opt moves until no move is accepted or the time is up. Only moves
+     * that connect a city to one of its nearest neighbours are tried. The slot must be evaluated, and the objectives
+     * are kept up to date from the edges each move changes. The matrices are taken to be symmetric.
+     *
+     * @param population The population
+     * @param slot The slot
+     * @param weight Weight of the distance for scalarized acceptance, between 0 and 1
+     * @param deadline Value of System.nanoTime() to stop at
+     * @return Number of moves made
+     */
+
+    public int improve(Population population, int slot, double weight, long deadline) {
+        this.distance = population.getDistance(slot);
+        this.cost = population.getCost(slot);
+        this.distanceScale = Math.max(Math.abs(this.distance), Double.MIN_NORMAL);
+        this.costScale = Math.max(Math.abs(this.cost), Double.MIN_NORMAL);
+        this.weight = weight;
+
+        // Copy the route, every city starts out in the queue
+        System.arraycopy(population.getRoutes(), population.getOffset(slot), this.tour, 0, this.cities);
+        this.head = 0;
+        this.queueSize = 0;
+        for (int i = 0; i < this.cities; i++) {
+            this.positions[this.tour[i]] = i;
+            this.queued[this.tour[i]] = false;
+            this.push(this.tour[i]);
+        }
+
+        int moves = 0;
+        while (this.queueSize > 0 && System.nanoTime() - deadline < 0) {
+            int city = this.poll();
+
+            // Look at the city again as long as it gives improving moves
+            if (this.twoOpt(city) || this.orOpt(city)) {
+                this.push(city);
+                moves++;
+            }
+        }
+
+        if (moves > 0) {
+            population.setRoute(slot, this.tour, this.distance, this.cost);
+        }
+        return moves;
+    }
+
+    /**
+     * Try the 2-opt moves that connect a city to one of its neighbours, on both sides of the city. The first move
+     * accepted is made.
+     *
+     * @param a The city
+     * @return True if a move was made
+     */
+
+    private boolean twoOpt(int a) {
+        for (int direction = 1; direction >= -1; direction -= 2) {
+            int i = this.positions[a];
+            int b = this.tour[this.wrap(i + direction)];
+
+            for (int rank = 0; rank < 2 * this.neighbours.getSize(); rank++) {
+                int c = this.candidate(a, rank);
+                int d = this.tour[this.wrap(this.positions[c] + direction)];
+                if (c == b || d == a) {
+                    continue;
+                }
+
+                // Replace the edges a-b and c-d with a-c and b-d
+                double distanceDelta = this.map.getDistance(a, c) + this.map.getDistance(b, d) -
+                        this.map.getDistance(a, b) - this.map.getDistance(c, d);
+                double costDelta = this.map.getCost(a, c) + this.map.getCost(b, d) - this.map.getCost(a, b) -
+                        this.map.getCost(c, d);
+                if (!this.accepts(distanceDelta, costDelta)) {
+                    continue;
+                }
+
+                // Reverse the path between the two edges
+                if (direction == 1) {
+                    this.reverse(this.positions[b], this.positions[c]);
+                }
+                else {
+                    this.reverse(this.positions[c], this.positions[b]);
+                }
+                this.distance += distanceDelta;
+                this.cost += costDelta;
+
+                this.push(b);
+                this.push(c);
+                this.push(d);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Try the Or-opt moves that take the segment starting at a city and put it next to one of the neighbours of the
+     * city, in either orientation. The first move accepted is made.
+     *
+     * @param a The first city of the segment
+     * @return True if a move was made
+     */
+
+    private boolean orOpt(int a) {
+        for (int length = 1; length <= MAX_SEGMENT && length + 2 <= this.cities; length++) {
+            int i = this.positions[a];
+            int last = this.tour[this.wrap(i + length - 1)];
+            int previous = this.tour[this.wrap(i - 1)];
+            int next = this.tour[this.wrap(i + length)];
+
+            // Taking the segment out joins the cities around it
+            double removeDistance = this.map.getDistance(previous, next) - this.map.getDistance(previous, a) -
+                    this.map.getDistance(last, next);
+            double removeCost = this.map.getCost(previous, next) - this.map.getCost(previous, a) -
+                    this.map.getCost(last, next);
+
+            for (int rank = 0; rank < 2 * this.neighbours.getSize(); rank++) {
+                int c = this.candidate(a, rank);
+                if (this.wrap(this.positions[c] - i) < length) {
+                    continue;
+                }
+
+                // Put the segment after c, or reversed before c, so a ends up next to c
+                for (int reversed = 0; reversed < 2; reversed++) {
+                    int x = reversed == 0 ? c : this.tour[this.wrap(this.positions[c] - 1)];
+                    int y = reversed == 0 ? this.tour[this.wrap(this.positions[c] + 1)] : c;
+                    if (x == previous || y == next) {
+                        continue;
+                    }
+                    int xEnd = reversed == 0 ? a : last;
+                    int yEnd = reversed == 0 ? last : a;
+
+                    double distanceDelta = removeDistance + this.map.getDistance(x, xEnd) +
+                            this.map.getDistance(yEnd, y) - this.map.getDistance(x, y);
+                    double costDelta = removeCost + this.map.getCost(x, xEnd) + this.map.getCost(yEnd, y) -
+                            this.map.getCost(x, y);
+                    if (!this.accepts(distanceDelta, costDelta)) {
+                        continue;
+                    }
+
+                    this.moveSegment(i, length, x, reversed == 1);
+                    this.distance += distanceDelta;
+                    this.cost += costDelta;
+
+                    this.push(previous);
+                    this.push(next);
+                    this.push(last);
+                    this.push(x);
+                    this.push(y);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get one of the neighbours of a city, the distance neighbours followed by the cost neighbours
+     *
+     * @param city The city
+     * @param rank Rank in the combined list
+     * @return The neighbour
+     */
+
+    private int candidate(int city, int rank) {
+        if (rank < this.neighbours.getSize()) {
+            return this.neighbours.getDistanceNeighbour(city, rank);
+        }
+        return this.neighbours.getCostNeighbour(city, rank - this.neighbours.getSize());
+    }
+
+    /**
+     * Check if a move should be made
+     *
+     * @param distanceDelta Change in distance
+     * @param costDelta Change in cost
+     * @return True to make the move
+     */
+
+    private boolean accepts(double distanceDelta, double costDelta) {
+        return this.acceptance.accepts(distanceDelta / this.distanceScale, costDelta / this.costScale, this.weight);
+    }
+
+    /**
+     * Reverse the cities between two positions, both inclusive and wrapping around. The shorter of the path and the
+     * rest of the route is reversed, which gives the same tour.
+     *
+     * @param from First position
+     * @param to Last position
+     */
+
+    private void reverse(int from, int to) {
+        int length = this.wrap(to - from) + 1;
+        if (2 * length > this.cities) {
+            int temp = from;
+            from = this.wrap(to + 1);
+            to = this.wrap(temp - 1);
+            length = this.cities - length;
+        }
+
+        for (int i = 0; i < length / 2; i++) {
+            int left = this.tour[this.wrap(from + i)];
+            int right = this.tour[this.wrap(to - i)];
+            this.place(this.wrap(from + i), right);
+            this.place(this.wrap(to - i), left);
+        }
+    }
+
+    /**
+     * Move a segment between a city and the city after it. The cities between the segment and its new place are
+     * shifted over, on whichever side of the segment has the fewest.
+     *
+     * @param from Position of the first city in the segment
+     * @param length Number of cities in the segment
+     * @param after The city to put the segment after
+     * @param reversed True to put the segment in backwards
+     */
+
+    private void moveSegment(int from, int length, int after, boolean reversed) {
+        for (int i = 0; i < length; i++) {
+            this.segment[i] = this.tour[this.wrap(from + i)];
+        }
+
+        // Cities from the one after the segment up to the city to put it after, and the ones on the other side
+        int forward = Math.floorMod(this.positions[after] - from - length, this.cities) + 1;
+        int backward = this.cities - length - forward;
+
+        int start;
+        if (forward <= backward) {
+            for (int i = 0; i < forward; i++) {
+                this.place(this.wrap(from + i), this.tour[this.wrap(from + length + i)]);
+            }
+            start = from + forward;
+        }
+        else {
+            for (int i = 1; i <= backward; i++) {
+                this.place(this.wrap(from + length - i), this.tour[this.wrap(from - i)]);
+            }
+            start = from - backward;
+        }
+
+        for (int i = 0; i < length; i++) {
+            this.place(this.wrap(start + i), this.segment[reversed ? length - 1 - i : i]);
+        }
+    }
+
+    /**
+     * Put a city at a position in the route
+     *
+     * @param position The position
+     * @param city The city
+     */
+
+    private void place(int position, int city) {
+        this.tour[position] = city;
+        this.positions[city] = position;
+    }
+
+    /**
+     * Wrap a position around the route
+     *
+     * @param position Position, at most one route length out of range
+     * @return Position between 0 and the number of cities
+     */
+
+    private int wrap(int position) {
+        if (position < 0) {
+            return position + this.cities;
+        }
+        if (position >= this.cities) {
+            return position - this.cities;
+        }
+        return position;
+    }
+
+    /**
+     * Add a city to the queue, unless it is already in it
+     *
+     * @param city The city
+     */
+
+    private void push(int city) {
+        if (this.queued[city]) {
+            return;
+        }
+        this.queued[city] = true;
+        this.queue[this.wrap(this.head + this.queueSize)] = city;
+        this.queueSize++;
+    }
+
+    /**
+     * Take the next city from the queue
+     *
+     * @return The city
+     */
+
+    private int poll() {
+        int city = this.queue[this.head];
+        this.queued[city] = false;
+        this.head = this.wrap(this.head + 1);
+        this.queueSize--;
+        return city;
+    }
+}
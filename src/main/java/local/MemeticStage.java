@@ -0,0 +1,117 @@
+package local;
+
+import ea.Settings;
+import nsga.Population;
+import parser.Map;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MemeticStage {
+
+    // Worker threads, null when running on the calling thread
+    private ForkJoinPool pool;
+
+    // One local search for each worker thread
+    private LocalSearch[] searches;
+
+    // The slots picked for local search this generation, with the weight each one is improved with
+    private int[] slots;
+    private double[] weights;
+    private int count;
+
+    // Next picked slot to hand out to a worker
+    private AtomicInteger next;
+
+    /**
+     * Constructor
+     *
+     * @param map The instance, its neighbour lists are built on first use
+     * @param pool Pool to run the searches on, null runs them on the calling thread
+     * @param threads Number of threads in the pool
+     */
+
+    public MemeticStage(Map map, ForkJoinPool pool, int threads) {
+        this.pool = pool;
+        this.searches = new LocalSearch[pool == null ? 1 : threads];
+        for (int i = 0; i < this.searches.length; i++) {
+            this.searches[i] = new LocalSearch(map, Settings.localSearchAcceptance);
+        }
+
+        this.slots = new int[0];
+        this.weights = new double[0];
+        this.next = new AtomicInteger();
+    }
+
+    /**
+     * Improve some of the slots in a range with local search. Each slot is picked with the chance in the settings and
+     * gets a random weight between the objectives. The picks only depend on the random number stream, but how far the
+     * search gets before the time budget runs out depends on the machine.
+     *
+     * @param population The population, the range must be evaluated
+     * @param from First slot, inclusive
+     * @param to Last slot, exclusive
+     * @param random Random number stream for the picks
+     * @return Number of moves made
+     */
+
+    public int improve(final Population population, int from, int to, SplittableRandom random) {
+        // Pick the slots
+        if (this.slots.length < to - from) {
+            this.slots = new int[to - from];
+            this.weights = new double[to - from];
+        }
+        this.count = 0;
+        for (int slot = from; slot < to; slot++) {
+            if (random.nextDouble() < Settings.localSearch) {
+                this.slots[this.count] = slot;
+                this.weights[this.count] = random.nextDouble();
+                this.count++;
+            }
+        }
+
+        // The time budget is shared by all the workers
+        final long deadline = Settings.localSearchTime > 0 ?
+                System.nanoTime() + Settings.localSearchTime * 1000000L : Long.MAX_VALUE;
+        this.next.set(0);
+
+        // Search on this thread if we have no pool
+        if (this.pool == null) {
+            return this.work(this.searches[0], population, deadline);
+        }
+
+        // Each worker takes the next picked slot until they are all done
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[this.searches.length];
+        for (int i = 0; i < this.searches.length; i++) {
+            final LocalSearch search = this.searches[i];
+            tasks[i] = this.pool.submit(() -> this.work(search, population, deadline));
+        }
+        int moves = 0;
+        for (ForkJoinTask<?> task : tasks) {
+            moves += (Integer) task.join();
+        }
+        return moves;
+    }
+
+    /**
+     * Improve picked slots with one local search until they are all taken
+     *
+     * @param search The local search
+     * @param population The population
+     * @param deadline Value of System.nanoTime() to stop at
+     * @return Number of moves made
+     */
+
+    private int work(LocalSearch search, Population population, long deadline) {
+        int moves = 0;
+        for (int i = this.next.getAndIncrement(); i < this.count; i = this.next.getAndIncrement()) {
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            moves += search.improve(population, this.slots[i], this.weights[i], deadline);
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,591 @@
+package local;
+
+import nsga.Population;
+import parento.ParetoFront;
+import parser.Map;
+import parser.NeighbourLists;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParetoLocalSearch {
+
+    // Worker threads, null when running on the calling thread
+    private ForkJoinPool pool;
+
+    // One explorer for each worker thread
+    private Explorer[] explorers;
+
+    // The archive. The members are slots in the archive population, sorted by distance, which sorts them by cost
+    // the other way around since none of them dominate each other
+    private Population archive;
+    private int[] members;
+    private int size;
+    private int capacity;
+
+    // Slots in the archive population not holding a member
+    private int[] free;
+    private int freeCount;
+
+    // Slots whose neighbourhood has been explored
+    private boolean[] explored;
+
+    // The members explored in the current round, and the neighbours found for each of them
+    private int[] round;
+    private Neighbours[] found;
+    private int roundSize;
+
+    // Next member of the round to hand out to a worker
+    private AtomicInteger next;
+
+    // Number of rounds in the last run
+    private int rounds;
+
+    /**
+     * Constructor
+     *
+     * @param map The instance, its neighbour lists are built on first use
+     * @param pool Pool to run the explorers on, null runs them on the calling thread
+     * @param threads Number of threads in the pool
+     * @param capacity Most members the archive keeps, at least 2
+     */
+
+    public ParetoLocalSearch(Map map, ForkJoinPool pool, int threads, int capacity) {
+        this.pool = pool;
+        this.explorers = new Explorer[pool == null ? 1 : threads];
+        for (int i = 0; i < this.explorers.length; i++) {
+            this.explorers[i] = new Explorer(map);
+        }
+
+        // One extra slot for the member that is added before the most crowded one is dropped
+        this.capacity = Math.max(2, capacity);
+        this.archive = new Population(this.capacity + 1, map);
+        this.archive.setSize(this.capacity + 1);
+        this.members = new int[this.capacity + 1];
+        this.free = new int[this.capacity + 1];
+        this.explored = new boolean[this.capacity + 1];
+        this.round = new int[this.capacity + 1];
+        this.found = new Neighbours[this.capacity + 1];
+        this.next = new AtomicInteger();
+    }
+
+    /**
+     * Polish a front. The neighbourhood of every member of the archive is explored with 2-opt moves and swaps that
+     * put a city next to one of its nearest neighbours, and the neighbours no member dominates are added to the
+     * archive. This is repeated in rounds until every member has been explored or the time is up. Each round explores
+     * its members in parallel and adds what was found in member order, so the result only depends on the time limit.
+     *
+     * @param front The front to start from
+     * @param deadline Value of System.nanoTime() to stop at
+     * @return The archive as a front
+     */
+
+    public ParetoFront run(ParetoFront front, long deadline) {
+        // Start from the members of the front
+        this.size = 0;
+        this.freeCount = 0;
+        for (int slot = this.capacity; slot >= 0; slot--) {
+            this.free[this.freeCount++] = slot;
+        }
+        Population population = front.getPopulation();
+        for (int i = 0; i < front.getSize(); i++) {
+            int slot = front.getMember(i);
+            this.insert(population.getRoutes(), population.getOffset(slot), population.getDistance(slot),
+                    population.getCost(slot));
+        }
+
+        this.rounds = 0;
+        while (System.nanoTime() - deadline < 0) {
+            // Take the members that are not explored yet
+            this.roundSize = 0;
+            for (int i = 0; i < this.size; i++) {
+                int slot = this.members[i];
+                if (!this.explored[slot]) {
+                    this.explored[slot] = true;
+                    this.round[this.roundSize++] = slot;
+                }
+            }
+
+            // Every member is explored, nothing more to find
+            if (this.roundSize == 0) {
+                break;
+            }
+
+            this.explore(deadline);
+            this.rounds++;
+
+            // Add the neighbours, in member order
+            for (int i = 0; i < this.roundSize; i++) {
+                Neighbours neighbours = this.found[i];
+                this.found[i] = null;
+                if (neighbours == null) {
+                    continue;
+                }
+                for (int j = 0; j < neighbours.count; j++) {
+                    this.insert(neighbours.routes[j], 0, neighbours.distances[j], neighbours.costs[j]);
+                }
+            }
+        }
+
+        // Create a front from the archive
+        ParetoFront polished = new ParetoFront(0, this.archive);
+        for (int i = 0; i < this.size; i++) {
+            this.archive.setParetoRank(this.members[i], 1);
+            polished.addMember(this.members[i]);
+        }
+        return polished;
+    }
+
+    /**
+     * Explore the members of the round on the worker threads
+     *
+     * @param deadline Value of System.nanoTime() to stop at
+     */
+
+    private void explore(final long deadline) {
+        this.next.set(0);
+
+        // Explore on this thread if we have no pool
+        if (this.pool == null) {
+            this.work(this.explorers[0], deadline);
+            return;
+        }
+
+        // Each worker takes the next member until they are all done
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[this.explorers.length];
+        for (int i = 0; i < this.explorers.length; i++) {
+            final Explorer explorer = this.explorers[i];
+            tasks[i] = this.pool.submit(() -> this.work(explorer, deadline));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * Explore members of the round with one explorer until they are all taken. The archive is only read while the
+     * round is explored.
+     *
+     * @param explorer The explorer
+     * @param deadline Value of System.nanoTime() to stop at
+     */
+
+    private void work(Explorer explorer, long deadline) {
+        for (int i = this.next.getAndIncrement(); i < this.roundSize; i = this.next.getAndIncrement()) {
+            if (System.nanoTime() - deadline >= 0) {
+                return;
+            }
+            this.found[i] = explorer.explore(this, this.round[i], deadline);
+        }
+    }
+
+    /**
+     * Check if a point is dominated by, or equal to, a member of the archive
+     *
+     * @param distance The distance
+     * @param cost The cost
+     * @return True if a member is at least as good in both objectives
+     */
+
+    private boolean isDominated(double distance, double cost) {
+        // The member with the largest distance not above the point has the lowest cost of those
+        int index = this.upperBound(distance);
+        return index > 0 && this.archive.getCost(this.members[index - 1]) <= cost;
+    }
+
+    /**
+     * Add a route to the archive unless a member dominates it. The members it dominates are removed, and if the
+     * archive is full the most crowded member is dropped.
+     *
+     * @param routes Array holding the route
+     * @param offset Offset of the route in the array
+     * @param distance The distance of the route
+     * @param cost The cost of the route
+     * @return True if the route was added
+     */
+
+    private boolean insert(int[] routes, int offset, double distance, double cost) {
+        if (this.isDominated(distance, cost)) {
+            return false;
+        }
+
+        // Remove the members with at least the distance and cost of the new route, they follow each other
+        int index = this.lowerBound(distance);
+        int end = index;
+        while (end < this.size && this.archive.getCost(this.members[end]) >= cost) {
+            this.free[this.freeCount++] = this.members[end];
+            end++;
+        }
+
+        // Make room and add the route
+        int slot = this.free[--this.freeCount];
+        System.arraycopy(this.members, end, this.members, index + 1, this.size - end);
+        this.size += index + 1 - end;
+        this.members[index] = slot;
+        this.explored[slot] = false;
+        this.archive.setRoute(slot, Arrays.copyOfRange(routes, offset, offset + this.archive.getCities()), distance,
+                cost);
+
+        if (this.size > this.capacity) {
+            this.dropMostCrowded();
+        }
+        return true;
+    }
+
+    /**
+     * Drop the member closest to its two neighbours in the archive, with both objectives scaled to the range of the
+     * archive. The two extremes are never dropped.
+     */
+
+    private void dropMostCrowded() {
+        double distanceRange = this.archive.getDistance(this.members[this.size - 1]) -
+                this.archive.getDistance(this.members[0]);
+        double costRange = this.archive.getCost(this.members[0]) - this.archive.getCost(this.members[this.size - 1]);
+        distanceRange = Math.max(distanceRange, Double.MIN_NORMAL);
+        costRange = Math.max(costRange, Double.MIN_NORMAL);
+
+        int crowded = 1;
+        double smallest = Double.POSITIVE_INFINITY;
+        for (int i = 1; i < this.size - 1; i++) {
+            double crowding = (this.archive.getDistance(this.members[i + 1]) -
+                    this.archive.getDistance(this.members[i - 1])) / distanceRange +
+                    (this.archive.getCost(this.members[i - 1]) - this.archive.getCost(this.members[i + 1])) / costRange;
+            if (crowding < smallest) {
+                smallest = crowding;
+                crowded = i;
+            }
+        }
+
+        this.free[this.freeCount++] = this.members[crowded];
+        System.arraycopy(this.members, crowded + 1, this.members, crowded, this.size - crowded - 1);
+        this.size--;
+    }
+
+    /**
+     * Find the first member with a distance of at least a value
+     *
+     * @param distance The value
+     * @return Index in the members
+     */
+
+    private int lowerBound(double distance) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.archive.getDistance(this.members[middle]) < distance) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find the first member with a distance above a value
+     *
+     * @param distance The value
+     * @return Index in the members
+     */
+
+    private int upperBound(double distance) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.archive.getDistance(this.members[middle]) <= distance) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the number of rounds in the last run
+     *
+     * @return Number of rounds
+     */
+
+    public int getRounds() {
+        return this.rounds;
+    }
+
+    /**
+     * Non-dominated neighbours found around a single member
+     */
+
+    private static class Neighbours {
+
+        private int[][] routes;
+        private double[] distances;
+        private double[] costs;
+        private int count;
+
+        Neighbours(int count) {
+            this.routes = new int[count][];
+            this.distances = new double[count];
+            this.costs = new double[count];
+        }
+    }
+
+    /**
+     * Explores the neighbourhood of one member at a time, owned by a single worker thread
+     */
+
+    private static class Explorer {
+
+        // The two kinds of move
+        private static final int REVERSE = 0;
+        private static final int SWAP = 1;
+
+        private Map map;
+        private NeighbourLists neighbours;
+        private int cities;
+
+        // The route being explored, and the position of each city id in it
+        private int[] tour;
+        private int[] positions;
+
+        // The moves found so far that none of the others dominate, with the objectives they lead to
+        private int[] kinds;
+        private int[] firsts;
+        private int[] seconds;
+        private double[] distances;
+        private double[] costs;
+        private int count;
+
+        Explorer(Map map) {
+            this.map = map;
+            this.neighbours = map.getNeighbours();
+            this.cities = map.getCities();
+            this.tour = new int[this.cities];
+            this.positions = new int[this.cities + 1];
+            this.grow(16);
+        }
+
+        /**
+         * Find the moves from a member that lead to routes no member of the archive dominates
+         *
+         * @param search The search, its archive is only read
+         * @param slot Slot of the member in the archive population
+         * @param deadline Value of System.nanoTime() to stop at
+         * @return The routes found, null if none
+         */
+
+        Neighbours explore(ParetoLocalSearch search, int slot, long deadline) {
+            Population archive = search.archive;
+            double distance = archive.getDistance(slot);
+            double cost = archive.getCost(slot);
+            System.arraycopy(archive.getRoutes(), archive.getOffset(slot), this.tour, 0, this.cities);
+            for (int i = 0; i < this.cities; i++) {
+                this.positions[this.tour[i]] = i;
+            }
+
+            this.count = 0;
+            for (int a = 1; a <= this.cities; a++) {
+                if (System.nanoTime() - deadline >= 0) {
+                    break;
+                }
+
+                int i = this.positions[a];
+                for (int rank = 0; rank < 2 * this.neighbours.getSize(); rank++) {
+                    int c = rank < this.neighbours.getSize() ? this.neighbours.getDistanceNeighbour(a, rank) :
+                            this.neighbours.getCostNeighbour(a, rank - this.neighbours.getSize());
+                    int j = this.positions[c];
+
+                    // 2-opt, replacing a-b and c-d with a-c and b-d, on both sides of a
+                    for (int direction = 1; direction >= -1; direction -= 2) {
+                        int b = this.tour[this.wrap(i + direction)];
+                        int d = this.tour[this.wrap(j + direction)];
+                        if (c == b || d == a) {
+                            continue;
+                        }
+                        double distanceDelta = this.map.getDistance(a, c) + this.map.getDistance(b, d) -
+                                this.map.getDistance(a, b) - this.map.getDistance(c, d);
+                        double costDelta = this.map.getCost(a, c) + this.map.getCost(b, d) -
+                                this.map.getCost(a, b) - this.map.getCost(c, d);
+                        int from = direction == 1 ? this.positions[b] : j;
+                        int to = direction == 1 ? j : this.positions[b];
+                        this.offer(search, distance + distanceDelta, cost + costDelta, REVERSE, from, to);
+                    }
+
+                    // Swap c in right after a
+                    int after = this.wrap(i + 1);
+                    if (j != after) {
+                        this.offerSwap(search, distance, cost, after, j);
+                    }
+                }
+            }
+
+            if (this.count == 0) {
+                return null;
+            }
+
+            // Create the routes for the moves that are left
+            Neighbours found = new Neighbours(this.count);
+            for (int k = 0; k < this.count; k++) {
+                int[] route = this.tour.clone();
+                if (this.kinds[k] == REVERSE) {
+                    this.reverse(route, this.firsts[k], this.seconds[k]);
+                }
+                else {
+                    int temp = route[this.firsts[k]];
+                    route[this.firsts[k]] = route[this.seconds[k]];
+                    route[this.seconds[k]] = temp;
+                }
+                found.routes[k] = route;
+                found.distances[k] = this.distances[k];
+                found.costs[k] = this.costs[k];
+            }
+            found.count = this.count;
+            return found;
+        }
+
+        /**
+         * Price a swap of two positions from the (at most four) edges that change, and offer it
+         *
+         * @param search The search
+         * @param distance Distance of the route
+         * @param cost Cost of the route
+         * @param first First position
+         * @param second Second position
+         */
+
+        private void offerSwap(ParetoLocalSearch search, double distance, double cost, int first, int second) {
+            double distanceDelta = -this.edgeSum(first, second, true);
+            double costDelta = -this.edgeSum(first, second, false);
+            this.swap(first, second);
+            distanceDelta += this.edgeSum(first, second, true);
+            costDelta += this.edgeSum(first, second, false);
+            this.swap(first, second);
+
+            this.offer(search, distance + distanceDelta, cost + costDelta, SWAP, first, second);
+        }
+
+        /**
+         * Sum the edges starting right before and at two positions, counting each edge once
+         *
+         * @param first First position
+         * @param second Second position
+         * @param distance True to sum distances, false to sum costs
+         * @return The sum
+         */
+
+        private double edgeSum(int first, int second, boolean distance) {
+            int edge1 = this.wrap(first - 1);
+            int edge2 = first;
+            int edge3 = this.wrap(second - 1);
+            int edge4 = second;
+
+            double sum = this.edgeValue(edge1, distance);
+            if (edge2 != edge1) {
+                sum += this.edgeValue(edge2, distance);
+            }
+            if (edge3 != edge1 && edge3 != edge2) {
+                sum += this.edgeValue(edge3, distance);
+            }
+            if (edge4 != edge1 && edge4 != edge2 && edge4 != edge3) {
+                sum += this.edgeValue(edge4, distance);
+            }
+            return sum;
+        }
+
+        private double edgeValue(int edge, boolean distance) {
+            int from = this.tour[edge];
+            int to = this.tour[this.wrap(edge + 1)];
+            return distance ? this.map.getDistance(from, to) : this.map.getCost(from, to);
+        }
+
+        private void swap(int first, int second) {
+            int temp = this.tour[first];
+            this.tour[first] = this.tour[second];
+            this.tour[second] = temp;
+        }
+
+        /**
+         * Keep a move if neither the archive nor the other moves kept dominate it, dropping the moves it dominates
+         *
+         * @param search The search
+         * @param distance Distance after the move
+         * @param cost Cost after the move
+         * @param kind REVERSE or SWAP
+         * @param first First position of the move
+         * @param second Second position of the move
+         */
+
+        private void offer(ParetoLocalSearch search, double distance, double cost, int kind, int first, int second) {
+            if (search.isDominated(distance, cost)) {
+                return;
+            }
+
+            int kept = 0;
+            for (int k = 0; k < this.count; k++) {
+                if (this.distances[k] <= distance && this.costs[k] <= cost) {
+                    return;
+                }
+                if (this.distances[k] < distance || this.costs[k] < cost) {
+                    this.kinds[kept] = this.kinds[k];
+                    this.firsts[kept] = this.firsts[k];
+                    this.seconds[kept] = this.seconds[k];
+                    this.distances[kept] = this.distances[k];
+                    this.costs[kept] = this.costs[k];
+                    kept++;
+                }
+            }
+
+            if (kept == this.kinds.length) {
+                this.grow(2 * kept);
+            }
+            this.kinds[kept] = kind;
+            this.firsts[kept] = first;
+            this.seconds[kept] = second;
+            this.distances[kept] = distance;
+            this.costs[kept] = cost;
+            this.count = kept + 1;
+        }
+
+        private void grow(int size) {
+            this.kinds = this.kinds == null ? new int[size] : Arrays.copyOf(this.kinds, size);
+            this.firsts = this.firsts == null ? new int[size] : Arrays.copyOf(this.firsts, size);
+            this.seconds = this.seconds == null ? new int[size] : Arrays.copyOf(this.seconds, size);
+            this.distances = this.distances == null ? new double[size] : Arrays.copyOf(this.distances, size);
+            this.costs = this.costs == null ? new double[size] : Arrays.copyOf(this.costs, size);
+        }
+
+        /**
+         * Reverse the cities between two positions of a route, both inclusive and wrapping around
+         *
+         * @param route The route
+         * @param from First position
+         * @param to Last position
+         */
+
+        private void reverse(int[] route, int from, int to) {
+            int length = this.wrap(to - from) + 1;
+            for (int i = 0; i < length / 2; i++) {
+                int left = this.wrap(from + i);
+                int right = this.wrap(to - i);
+                int temp = route[left];
+                route[left] = route[right];
+                route[right] = temp;
+            }
+        }
+
+        private int wrap(int position) {
+            if (position < 0) {
+                return position + this.cities;
+            }
+            if (position >= this.cities) {
+                return position - this.cities;
+            }
+            return position;
+        }
+    }
+}
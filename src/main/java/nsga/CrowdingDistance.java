@@ -0,0 +1,261 @@
+package nsga;
+
+import ea.Settings;
+import parento.ParetoFront;
+import sort.Sorter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CrowdingDistance {
+
+    // Pool to spread the fronts over, null to run on the calling thread
+    private ForkJoinPool pool;
+
+    // One set of scratch buffers for each worker
+    private Scratch[] scratch;
+
+    /**
+     * Constructor
+     *
+     * @param pool Pool to spread the fronts over, null to run on the calling thread
+     */
+
+    public CrowdingDistance(ForkJoinPool pool) {
+        this.pool = pool;
+
+        int workers = pool == null ? 1 : pool.getParallelism();
+        this.scratch = new Scratch[workers];
+        for (int i = 0; i < workers; i++) {
+            this.scratch[i] = new Scratch();
+        }
+    }
+
+    /**
+     * Assign crowding distance to the members of the first fronts. The fronts are independent, so they are handed out
+     * to the workers one at a time.
+     *
+     * @param fronts The fronts
+     * @param count Number of fronts, from the first, to assign crowding distance to
+     */
+
+    public void assign(final ArrayList<ParetoFront> fronts, final int count) {
+        // Run on this thread if there is nothing to spread
+        if (this.pool == null || count == 1) {
+            for (int i = 0; i < count; i++) {
+                this.assign(fronts.get(i), this.scratch[0]);
+            }
+        }
+        else {
+            final AtomicInteger next = new AtomicInteger();
+            ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[this.scratch.length];
+            for (int i = 0; i < this.scratch.length; i++) {
+                final Scratch workerScratch = this.scratch[i];
+                tasks[i] = this.pool.submit(() -> {
+                    for (int front = next.getAndIncrement(); front < count; front = next.getAndIncrement()) {
+                        this.assign(fronts.get(front), workerScratch);
+                    }
+                });
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+
+        // Check against the reference implementation if asked to
+        if (Settings.verifyCrowdingDistance) {
+            for (int i = 0; i < count; i++) {
+                verify(fronts.get(i));
+            }
+        }
+    }
+
+    /**
+     * Assign crowding distance to the members of a single front
+     *
+     * @param front Front to calculate distances for
+     * @param scratch Scratch buffers to use
+     */
+
+    private void assign(ParetoFront front, Scratch scratch) {
+        Population population = front.getPopulation();
+        int size = front.getSize();
+        scratch.ensureCapacity(size);
+
+        int[] order = scratch.order;
+        double[] distances = scratch.distances;
+        double[] costs = scratch.costs;
+        double[] values = scratch.values;
+
+        // Gather the objectives
+        for (int i = 0; i < size; i++) {
+            distances[i] = population.getDistance(front.getMember(i));
+            costs[i] = population.getCost(front.getMember(i));
+            values[i] = 0.0;
+        }
+
+        // Add the contribution from each objective
+        accumulate(order, scratch.buffer, size, distances, values);
+        accumulate(order, scratch.buffer, size, costs, values);
+
+        // Store the result
+        for (int i = 0; i < size; i++) {
+            population.setCrowdingDistance(front.getMember(i), values[i]);
+        }
+    }
+
+    /**
+     * Sort the front by one objective and add the normalized distance between the neighbours of each member. The
+     * extremes get infinite crowding distance.
+     *
+     * @param order Scratch buffer for the sorted indices
+     * @param buffer Scratch buffer for the sort
+     * @param size Number of members
+     * @param objective The objective values, indexed like the members
+     * @param values The crowding distances, indexed like the members
+     */
+
+    private static void accumulate(int[] order, int[] buffer, int size, double[] objective, double[] values) {
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Sorter.sortByKey(order, size, buffer, objective);
+
+        // Get min/max values, making sure to avoid null division
+        double minMax = objective[order[size - 1]] - objective[order[0]];
+        if (Math.abs(minMax) < 1e-4) {
+            minMax = 1;
+        }
+
+        // Set inf to extremes
+        values[order[0]] = Double.POSITIVE_INFINITY;
+        values[order[size - 1]] = Double.POSITIVE_INFINITY;
+
+        // Add the distance between the neighbours for the others
+        for (int i = 1; i < size - 1; i++) {
+            values[order[i]] += (objective[order[i + 1]] - objective[order[i - 1]]) / minMax;
+        }
+    }
+
+    /**
+     * Check the crowding distances of a front against the reference implementation
+     *
+     * @param front The front to check
+     */
+
+    private static void verify(ParetoFront front) {
+        Population population = front.getPopulation();
+        double[] expected = reference(front);
+
+        for (int i = 0; i < front.getSize(); i++) {
+            double actual = population.getCrowdingDistance(front.getMember(i));
+            if (Double.compare(actual, expected[i]) != 0) {
+                throw new IllegalStateException("Crowding distance of slot " + front.getMember(i) + " is " + actual +
+                        ", reference implementation gave " + expected[i]);
+            }
+        }
+    }
+
+    /**
+     * Reference implementation, calculating the crowding distances with boxed lists and comparators
+     *
+     * @param front The front
+     * @return The crowding distances, indexed like the members
+     */
+
+    private static double[] reference(ParetoFront front) {
+        final Population population = front.getPopulation();
+        int size = front.getSize();
+
+        // Map from slot to result index
+        Map<Integer, Integer> indices = new HashMap<>();
+        List<Integer> members = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            indices.put(front.getMember(i), i);
+            members.add(front.getMember(i));
+        }
+
+        double[] result = new double[size];
+
+        //
+        // DISTANCE
+        //
+
+        List<Integer> distanceSorted = new ArrayList<>(members);
+        Collections.sort(distanceSorted, Comparator.comparingDouble(population::getDistance));
+
+        double minMaxDistance = population.getDistance(distanceSorted.get(size - 1)) -
+                population.getDistance(distanceSorted.get(0));
+        if (Math.abs(minMaxDistance) < 1e-4) {
+            minMaxDistance = 1;
+        }
+
+        result[indices.get(distanceSorted.get(0))] = Double.POSITIVE_INFINITY;
+        result[indices.get(distanceSorted.get(size - 1))] = Double.POSITIVE_INFINITY;
+        for (int i = 1; i < size - 1; i++) {
+            double previous = population.getDistance(distanceSorted.get(i - 1));
+            double next = population.getDistance(distanceSorted.get(i + 1));
+            result[indices.get(distanceSorted.get(i))] = (next - previous) / minMaxDistance;
+        }
+
+        //
+        // COST
+        //
+
+        List<Integer> costSorted = new ArrayList<>(members);
+        Collections.sort(costSorted, Comparator.comparingDouble(population::getCost));
+
+        double minMaxCost = population.getCost(costSorted.get(size - 1)) - population.getCost(costSorted.get(0));
+        if (Math.abs(minMaxCost) < 1e-4) {
+            minMaxCost = 1;
+        }
+
+        result[indices.get(costSorted.get(0))] = Double.POSITIVE_INFINITY;
+        result[indices.get(costSorted.get(size - 1))] = Double.POSITIVE_INFINITY;
+        for (int i = 1; i < size - 1; i++) {
+            double previous = population.getCost(costSorted.get(i - 1));
+            double next = population.getCost(costSorted.get(i + 1));
+            result[indices.get(costSorted.get(i))] += (next - previous) / minMaxCost;
+        }
+
+        return result;
+    }
+
+    /**
+     * Scratch buffers for one worker
+     */
+
+    private static class Scratch {
+
+        private int[] order = new int[0];
+        private int[] buffer = new int[0];
+        private double[] distances = new double[0];
+        private double[] costs = new double[0];
+        private double[] values = new double[0];
+
+        /**
+         * Grow the buffers if needed
+         *
+         * @param size Number of members in the front
+         */
+
+        private void ensureCapacity(int size) {
+            if (this.order.length >= size) {
+                return;
+            }
+
+            this.order = new int[size];
+            this.buffer = new int[size];
+            this.distances = new double[size];
+            this.costs = new double[size];
+            this.values = new double[size];
+        }
+    }
+}
@@ -0,0 +1,812 @@
+package nsga;
+
+import ea.Settings;
+import parser.Map;
+import parser.NeighbourLists;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class Population {
+
+    // The instance the routes are for
+    private Map map;
+
+    // Number of cities in each route
+    private int cities;
+
+    // The nearest cities of each city, null unless the neighbour mutation is turned on
+    private NeighbourLists neighbours;
+
+    // Number of slots in use
+    private int size;
+
+    // All routes stored back to back, the route in slot i starts at i * cities
+    private int[] routes;
+
+    // Position of each city in each route, the index for slot i starts at i * (cities + 1). Only kept when the
+    // neighbour mutation is on, null otherwise
+    private int[] positions;
+
+    // Objectives, rank and crowding distance stored in parallel arrays indexed by slot
+    private double[] distances;
+    private double[] costs;
+    private boolean[] evaluated;
+    private int[] paretoRanks;
+    private double[] crowdingDistances;
+
+    /**
+     * Constructor
+     *
+     * @param capacity Number of slots to allocate up front
+     * @param map The instance the routes are for
+     */
+
+    public Population(int capacity, Map map) {
+        this.map = map;
+        this.cities = map.getCities();
+        this.size = 0;
+
+        // Get the neighbour lists here rather than in the parallel breeding, where building them would stall it
+        this.neighbours = Settings.neighbourMutation > 0 ? map.getNeighbours() : null;
+
+        // Allocate the storage
+        this.routes = new int[0];
+        this.positions = this.neighbours != null ? new int[0] : null;
+        this.distances = new double[0];
+        this.costs = new double[0];
+        this.evaluated = new boolean[0];
+        this.paretoRanks = new int[0];
+        this.crowdingDistances = new double[0];
+        this.ensureCapacity(capacity);
+    }
+
+    /**
+     * Make sure the population has room for a number of slots. Existing slots are kept.
+     *
+     * @param capacity Number of slots needed
+     */
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= this.distances.length) {
+            return;
+        }
+
+        // Grow with some slack to avoid growing every generation
+        int newCapacity = Math.max(capacity, this.distances.length + (this.distances.length >> 1));
+
+        int[] newRoutes = new int[newCapacity * this.cities];
+        System.arraycopy(this.routes, 0, newRoutes, 0, this.routes.length);
+        this.routes = newRoutes;
+
+        if (this.positions != null) {
+            this.positions = Arrays.copyOf(this.positions, newCapacity * (this.cities + 1));
+        }
+
+        this.distances = Arrays.copyOf(this.distances, newCapacity);
+        this.costs = Arrays.copyOf(this.costs, newCapacity);
+        this.evaluated = Arrays.copyOf(this.evaluated, newCapacity);
+        this.paretoRanks = Arrays.copyOf(this.paretoRanks, newCapacity);
+        this.crowdingDistances = Arrays.copyOf(this.crowdingDistances, newCapacity);
+    }
+
+    /**
+     * Number of slots in use
+     *
+     * @return The size
+     */
+
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Set the number of slots in use
+     *
+     * @param size The new size
+     */
+
+    public void setSize(int size) {
+        this.ensureCapacity(size);
+        this.size = size;
+    }
+
+    /**
+     * Number of cities in each route
+     *
+     * @return Number of cities
+     */
+
+    public int getCities() {
+        return this.cities;
+    }
+
+    /**
+     * Get the flat block of routes. The route in a slot starts at getOffset(slot).
+     *
+     * @return All the routes
+     */
+
+    public int[] getRoutes() {
+        return this.routes;
+    }
+
+    /**
+     * Get the offset of a route in the flat block of routes
+     *
+     * @param slot The slot
+     * @return Offset of the first city in the route
+     */
+
+    public int getOffset(int slot) {
+        return slot * this.cities;
+    }
+
+    /**
+     * Get a copy of the route in a slot
+     *
+     * @param slot The slot
+     * @return The int array (phenotype) for this slot
+     */
+
+    public int[] getRoute(int slot) {
+        int[] route = new int[this.cities];
+        System.arraycopy(this.routes, this.getOffset(slot), route, 0, this.cities);
+        return route;
+    }
+
+    /**
+     * Calculate objective function #1 (distance)
+     *
+     * @param slot The slot
+     * @return The distance
+     */
+
+    public double getDistance(int slot) {
+        // Only calculate if not already stored
+        if (!this.evaluated[slot]) {
+            this.evaluate(slot);
+        }
+
+        return this.distances[slot];
+    }
+
+    /**
+     * Calculate objective function #2 (cost)
+     *
+     * @param slot The slot
+     * @return The cost
+     */
+
+    public double getCost(int slot) {
+        // Only calculate if not already stored
+        if (!this.evaluated[slot]) {
+            this.evaluate(slot);
+        }
+
+        return this.costs[slot];
+    }
+
+    /**
+     * Calculate both objectives for a slot
+     *
+     * @param slot The slot
+     */
+
+    public void evaluate(int slot) {
+        // Both objectives are summed by the matrix storage, in the layout selected in the settings
+        this.map.getStorage().evaluate(this.routes, this.getOffset(slot), this.cities, this.distances,
+                this.costs, slot);
+        this.evaluated[slot] = true;
+    }
+
+    /**
+     * Set the objectives for a slot calculated elsewhere
+     *
+     * @param slot The slot
+     * @param distance The distance
+     * @param cost The cost
+     */
+
+    public void setObjectives(int slot, double distance, double cost) {
+        this.distances[slot] = distance;
+        this.costs[slot] = cost;
+        this.evaluated[slot] = true;
+    }
+
+    /**
+     * Replace the route in a slot with one improved elsewhere, along with its objectives
+     *
+     * @param slot The slot
+     * @param route The new route
+     * @param distance The distance of the new route
+     * @param cost The cost of the new route
+     */
+
+    public void setRoute(int slot, int[] route, double distance, double cost) {
+        System.arraycopy(route, 0, this.routes, this.getOffset(slot), this.cities);
+        this.indexRoute(slot);
+        this.resetRanking(slot);
+        this.setObjectives(slot, distance, cost);
+
+        if (Settings.verifyDeltaEvaluation) {
+            this.verify(slot, distance, cost);
+        }
+    }
+
+    /**
+     * Check if the objectives for a slot are calculated
+     *
+     * @param slot The slot
+     * @return True if evaluated
+     */
+
+    public boolean isEvaluated(int slot) {
+        return this.evaluated[slot];
+    }
+
+    /**
+     * Check if one slot dominates another slot
+     *
+     * @param one The slot we are going to check if dominates
+     * @param two The other slot
+     * @return True if one dominates two, false otherwise
+     */
+
+    public boolean dominates(int one, int two) {
+        int dominate = dominatesValue(this.getDistance(one), this.getDistance(two)) +
+                dominatesValue(this.getCost(one), this.getCost(two));
+        return dominate > 0;
+    }
+
+    /**
+     * Check if we dominate another objective value
+     *
+     * @param value Our value
+     * @param otherValue Other value to compare to
+     * @return 1 if we dominate, 0 if equal, -1 if dominated
+     */
+
+    private static int dominatesValue(double value, double otherValue) {
+        if (value < otherValue) {
+            return 1;
+        }
+        else if (value == otherValue) {
+            return 0;
+        }
+        else {
+            // Dominated
+            return -1;
+        }
+    }
+
+    /**
+     * Get pareto rank
+     *
+     * @param slot The slot
+     * @return The pareto rank, 0 if not ranked
+     */
+
+    public int getParetoRank(int slot) {
+        return this.paretoRanks[slot];
+    }
+
+    /**
+     * Setter for pareto rank
+     *
+     * @param slot The slot
+     * @param paretoRank The pareto rank for this slot
+     */
+
+    public void setParetoRank(int slot, int paretoRank) {
+        this.paretoRanks[slot] = paretoRank;
+    }
+
+    /**
+     * Get crowding distance
+     *
+     * @param slot The slot
+     * @return The crowding distance
+     */
+
+    public double getCrowdingDistance(int slot) {
+        return this.crowdingDistances[slot];
+    }
+
+    /**
+     * Setter for crowding distance
+     *
+     * @param slot The slot
+     * @param crowdingDistance The crowding distance for this slot
+     */
+
+    public void setCrowdingDistance(int slot, double crowdingDistance) {
+        this.crowdingDistances[slot] = crowdingDistance;
+    }
+
+    /**
+     * Reset rank and crowding distance for a slot before sorting. The objectives are kept.
+     *
+     * @param slot The slot
+     */
+
+    public void resetRanking(int slot) {
+        this.paretoRanks[slot] = 0;
+        this.crowdingDistances[slot] = 0.0;
+    }
+
+    /**
+     * Reset all values for a slot (important if mutated)
+     *
+     * @param slot The slot
+     */
+
+    public void reset(int slot) {
+        this.evaluated[slot] = false;
+        this.resetRanking(slot);
+    }
+
+    /**
+     * Copy a slot, including its objectives, rank and crowding distance, to a slot in another population
+     *
+     * @param slot The slot to copy from
+     * @param target Population to copy to
+     * @param targetSlot Slot to copy to
+     */
+
+    public void copyTo(int slot, Population target, int targetSlot) {
+        System.arraycopy(this.routes, this.getOffset(slot), target.routes, target.getOffset(targetSlot), this.cities);
+        if (target.positions != null && this.positions != null) {
+            System.arraycopy(this.positions, slot * (this.cities + 1), target.positions,
+                    targetSlot * (this.cities + 1), this.cities + 1);
+        }
+        else {
+            target.indexRoute(targetSlot);
+        }
+
+        target.distances[targetSlot] = this.distances[slot];
+        target.costs[targetSlot] = this.costs[slot];
+        target.evaluated[targetSlot] = this.evaluated[slot];
+        target.paretoRanks[targetSlot] = this.paretoRanks[slot];
+        target.crowdingDistances[targetSlot] = this.crowdingDistances[slot];
+    }
+
+    /**
+     * Create a random route for a slot
+     *
+     * @param slot The slot
+     * @param r Random number stream
+     */
+
+    public void randomize(int slot, SplittableRandom r) {
+        int offset = this.getOffset(slot);
+
+        // Create and shuffle the cities to create random DNA
+        for (int i = 0; i < this.cities; i++) {
+            this.routes[offset + i] = i + 1;
+        }
+        for (int i = this.cities - 1; i > 0; i--) {
+            int j = r.nextInt(i + 1);
+            int temp = this.routes[offset + i];
+            this.routes[offset + i] = this.routes[offset + j];
+            this.routes[offset + j] = temp;
+        }
+
+        this.indexRoute(slot);
+        this.reset(slot);
+    }
+
+    /**
+     * Mutation
+     *
+     * @param slot The slot to mutate
+     * @param r Random number stream
+     */
+
+    public void mutate(int slot, SplittableRandom r) {
+        // Note: Probability FOR mutation is used, e.i. 1.0 is always mutate, 0.0 is never
+        if (Settings.mutation < r.nextDouble()) {
+            return;
+        }
+
+        // Sometimes move a city next to one of its nearest neighbours instead
+        if (this.neighbours != null && r.nextDouble() < Settings.neighbourMutation) {
+            this.neighbourSwap(slot, r);
+            return;
+        }
+
+        // Select random chromosome to swap
+        int swap1Index = getRandomChromosome(r);
+        int swap2Index = getRandomChromosome(r);
+
+        // Do the swap
+        this.swap(slot, swap1Index, swap2Index);
+    }
+
+    /**
+     * Mutation that picks a random city and one of its nearest neighbours, by distance or by cost, and swaps the
+     * neighbour in right after the city. The edge created is short in one of the objectives, unlike a random swap.
+     * The neighbour is found through the position index, so the mutation is O(1).
+     *
+     * @param slot The slot to mutate
+     * @param r Random number stream
+     */
+
+    public void neighbourSwap(int slot, SplittableRandom r) {
+        int offset = this.getOffset(slot);
+        NeighbourLists neighbours = this.neighbours;
+        if (neighbours == null || neighbours.getSize() == 0) {
+            return;
+        }
+
+        // Select a random city and one of its neighbours
+        int first = getRandomChromosome(r);
+        int city = this.routes[offset + first];
+        int rank = r.nextInt(neighbours.getSize());
+        int neighbour = r.nextBoolean() ? neighbours.getDistanceNeighbour(city, rank) :
+                neighbours.getCostNeighbour(city, rank);
+
+        // Look up where the neighbour is in the route
+        int second = this.positions[slot * (this.cities + 1) + neighbour];
+
+        // Nothing to do if they are already next to each other
+        int next = (first + 1) % this.cities;
+        if (second == next || (second + 1) % this.cities == first) {
+            return;
+        }
+
+        this.swap(slot, next, second);
+    }
+
+    /**
+     * Swap two cities in a route. If the objectives are already calculated they are updated from the (at most four)
+     * edges that change, instead of walking the entire route again.
+     *
+     * @param slot The slot
+     * @param first Position of the first city
+     * @param second Position of the second city
+     */
+
+    public void swap(int slot, int first, int second) {
+        int offset = this.getOffset(slot);
+        boolean update = this.evaluated[slot];
+
+        // The edges starting right before and at each of the two positions
+        int edge1 = (first + this.cities - 1) % this.cities;
+        int edge2 = first;
+        int edge3 = (second + this.cities - 1) % this.cities;
+        int edge4 = second;
+
+        // Remove the old edges
+        double distance = this.distances[slot];
+        double cost = this.costs[slot];
+        if (update) {
+            distance -= this.edgeSum(offset, edge1, edge2, edge3, edge4, true);
+            cost -= this.edgeSum(offset, edge1, edge2, edge3, edge4, false);
+        }
+
+        // Do the swap
+        int swap1Value = this.routes[offset + first];
+        this.routes[offset + first] = this.routes[offset + second];
+        this.routes[offset + second] = swap1Value;
+        if (this.positions != null) {
+            this.positions[slot * (this.cities + 1) + this.routes[offset + first]] = first;
+            this.positions[slot * (this.cities + 1) + swap1Value] = second;
+        }
+
+        // Reset rank and crowding distance, and the objectives unless we can update them
+        this.reset(slot);
+        if (!update) {
+            return;
+        }
+
+        // Add the new edges
+        distance += this.edgeSum(offset, edge1, edge2, edge3, edge4, true);
+        cost += this.edgeSum(offset, edge1, edge2, edge3, edge4, false);
+        this.distances[slot] = distance;
+        this.costs[slot] = cost;
+        this.evaluated[slot] = true;
+
+        // Check against a full calculation if asked to
+        if (Settings.verifyDeltaEvaluation) {
+            this.verify(slot, distance, cost);
+        }
+    }
+
+    /**
+     * Sum the distance or cost of up to four edges in a route, counting each edge only once. An edge is given by the
+     * position it starts at.
+     *
+     * @param offset Offset of the route
+     * @param edge1 First edge
+     * @param edge2 Second edge
+     * @param edge3 Third edge
+     * @param edge4 Fourth edge
+     * @param distance True to sum distances, false to sum costs
+     * @return The sum
+     */
+
+    private double edgeSum(int offset, int edge1, int edge2, int edge3, int edge4, boolean distance) {
+        double sum = this.edgeValue(offset, edge1, distance);
+        if (edge2 != edge1) {
+            sum += this.edgeValue(offset, edge2, distance);
+        }
+        if (edge3 != edge1 && edge3 != edge2) {
+            sum += this.edgeValue(offset, edge3, distance);
+        }
+        if (edge4 != edge1 && edge4 != edge2 && edge4 != edge3) {
+            sum += this.edgeValue(offset, edge4, distance);
+        }
+        return sum;
+    }
+
+    /**
+     * Get the distance or cost of a single edge in a route
+     *
+     * @param offset Offset of the route
+     * @param edge Position the edge starts at, the edge goes to the next position (wrapping around)
+     * @param distance True for distance, false for cost
+     * @return The value of the edge
+     */
+
+    private double edgeValue(int offset, int edge, boolean distance) {
+        int from = this.routes[offset + edge];
+        int to = this.routes[offset + (edge + 1) % this.cities];
+
+        if (distance) {
+            return this.map.getDistance(from, to);
+        }
+        return this.map.getCost(from, to);
+    }
+
+    /**
+     * Recalculate the objectives for a slot from scratch and compare them to the values we have
+     *
+     * @param slot The slot
+     * @param distance The distance we have
+     * @param cost The cost we have
+     */
+
+    private void verify(int slot, double distance, double cost) {
+        this.evaluate(slot);
+
+        double tolerance = 1e-6 * Math.max(1.0, Math.abs(this.distances[slot]) + Math.abs(this.costs[slot]));
+        if (Math.abs(this.distances[slot] - distance) > tolerance || Math.abs(this.costs[slot] - cost) > tolerance) {
+            throw new IllegalStateException("Delta evaluation of slot " + slot + " gave distance " + distance +
+                    " and cost " + cost + ", full evaluation gave " + this.distances[slot] + " and " + this.costs[slot]);
+        }
+    }
+
+    /**
+     * Crossover. The offspring are written to two slots in the target population.
+     *
+     * @param mother Slot of the first parent
+     * @param father Slot of the second parent
+     * @param target Population to write the offspring to
+     * @param child1 Slot for the first child
+     * @param child2 Slot for the second child
+     * @param r Random number stream
+     * @param positions Scratch buffer used to index the cities, at least [number of cities + 1] long
+     */
+
+    public void crossover(int mother, int father, Population target, int child1, int child2, SplittableRandom r,
+                          int[] positions) {
+        // Note: Probability FOR crossover is used, e.i. 1.0 is always crossover, 0.0 is always clone
+        if (Settings.crossover < r.nextDouble()) {
+            // The clones get their own copy of the route, and keep the objectives until they are changed
+            this.copyTo(mother, target, child1);
+            this.copyTo(mother, target, child2);
+            target.resetRanking(child1);
+            target.resetRanking(child2);
+            return;
+        }
+
+        int crossoverStart = r.nextInt(this.cities) + 1; // Random crossover from 1 to 46 (46+1 is exclusive)
+        int crossoverEnd = crossoverStart + r.nextInt((this.cities - crossoverStart) + 1);
+
+        int motherOffset = this.getOffset(mother);
+        int fatherOffset = this.getOffset(father);
+        int child1Offset = target.getOffset(child1);
+        int child2Offset = target.getOffset(child2);
+
+        System.arraycopy(this.routes, motherOffset, target.routes, child1Offset, this.cities);
+        System.arraycopy(this.routes, fatherOffset, target.routes, child2Offset, this.cities);
+
+        // Take the segment from the other parent
+        copySegment(this.routes, fatherOffset, target.routes, child1Offset, crossoverStart, crossoverEnd, positions);
+        copySegment(this.routes, motherOffset, target.routes, child2Offset, crossoverStart, crossoverEnd, positions);
+        target.indexRoute(child1);
+        target.indexRoute(child2);
+
+        target.reset(child1);
+        target.reset(child2);
+    }
+
+    /**
+     * Copy a segment from a parent into a child gene by gene. Each gene that comes in swaps places with the gene it
+     * replaces, so the child stays a valid route. The position of every city is kept in an index, making each repair
+     * O(1) instead of a scan over the route.
+     *
+     * @param source Block of routes holding the parent
+     * @param sourceOffset Offset of the parent
+     * @param child Block of routes holding the child
+     * @param childOffset Offset of the child
+     * @param from First position of the segment, inclusive
+     * @param to Last position of the segment, exclusive
+     * @param positions Scratch index, at least [number of cities + 1] long
+     */
+
+    private void copySegment(int[] source, int sourceOffset, int[] child, int childOffset, int from, int to,
+                             int[] positions) {
+        // Index the position of each city in the child
+        for (int i = 0; i < this.cities; i++) {
+            positions[child[childOffset + i]] = i;
+        }
+
+        for (int i = from; i < to; i++) {
+            int outNumber = child[childOffset + i];  // Number that will be removed
+            int inNumber = source[sourceOffset + i]; // Number that will take its place
+
+            // Move the number that is removed to where the incoming number was
+            int inPosition = positions[inNumber];
+            child[childOffset + inPosition] = outNumber;
+            child[childOffset + i] = inNumber;
+            positions[outNumber] = inPosition;
+            positions[inNumber] = i;
+        }
+    }
+
+    /**
+     * Rebuild the position index of a slot after its route is replaced, if the index is kept
+     *
+     * @param slot The slot
+     */
+
+    private void indexRoute(int slot) {
+        if (this.positions == null) {
+            return;
+        }
+
+        int offset = this.getOffset(slot);
+        int start = slot * (this.cities + 1);
+        for (int i = 0; i < this.cities; i++) {
+            this.positions[start + this.routes[offset + i]] = i;
+        }
+    }
+
+    /**
+     * Return a random chromosome
+     *
+     * @param r Random number stream
+     * @return Number from 0 - [number of chromosomes - 1]
+     */
+
+    private int getRandomChromosome(SplittableRandom r) {
+        return r.nextInt((this.cities - 1) + 1);
+    }
+
+    /**
+     * Hash a route so that the same tour gets the same hash no matter which city it starts at or which direction it
+     * is walked in. The route is read from the lowest city, in the direction of its lowest neighbour.
+     *
+     * @param slot The slot
+     * @return The hash
+     */
+
+    public long routeHash(int slot) {
+        return this.hashRoute(slot, this.cities, 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Hash a route like routeHash, but with a different seed and multiplier. Routes that share a routeHash are very
+     * unlikely to also share this one, so it can confirm a match without comparing the whole route.
+     *
+     * @param slot The slot
+     * @return The check hash
+     */
+
+    public long routeCheck(int slot) {
+        return this.hashRoute(slot, ~this.cities, 0xC2B2AE3D27D4EB4FL);
+    }
+
+    /**
+     * Hash a route in canonical order, see routeHash
+     *
+     * @param slot The slot
+     * @param seed Starting value of the hash
+     * @param multiplier Odd multiplier applied after each city
+     * @return The hash
+     */
+
+    private long hashRoute(int slot, long seed, long multiplier) {
+        int offset = this.getOffset(slot);
+        int start = this.canonicalStart(offset);
+        int step = this.canonicalStep(offset, start);
+
+        // Walk the tour from the canonical start
+        long hash = seed;
+        int position = start;
+        for (int i = 0; i < this.cities; i++) {
+            hash = (hash + this.routes[offset + position]) * multiplier;
+            position = (position + step + this.cities) % this.cities;
+        }
+
+        // Mix the bits, so the low bits depend on the whole route
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Check if two slots hold the same tour, allowing different start cities and directions
+     *
+     * @param slot The slot
+     * @param other Population holding the other slot
+     * @param otherSlot The other slot
+     * @return True if the tours are the same
+     */
+
+    public boolean sameRoute(int slot, Population other, int otherSlot) {
+        int offset = this.getOffset(slot);
+        int start = this.canonicalStart(offset);
+        int step = this.canonicalStep(offset, start);
+
+        int otherOffset = other.getOffset(otherSlot);
+        int otherStart = other.canonicalStart(otherOffset);
+        int otherStep = other.canonicalStep(otherOffset, otherStart);
+
+        // Walk both tours from their canonical start
+        for (int i = 0; i < this.cities; i++) {
+            int position = (start + i * step + this.cities) % this.cities;
+            int otherPosition = (otherStart + i * otherStep + this.cities) % this.cities;
+            if (this.routes[offset + position] != other.routes[otherOffset + otherPosition]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Find the position of the lowest city in a route
+     *
+     * @param offset Offset of the route
+     * @return The position
+     */
+
+    private int canonicalStart(int offset) {
+        int start = 0;
+        for (int i = 1; i < this.cities; i++) {
+            if (this.routes[offset + i] < this.routes[offset + start]) {
+                start = i;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Find the direction to walk a route in, towards the lowest neighbour of the start
+     *
+     * @param offset Offset of the route
+     * @param start The canonical start
+     * @return 1 to walk forwards, -1 to walk backwards
+     */
+
+    private int canonicalStep(int offset, int start) {
+        int next = this.routes[offset + (start + 1) % this.cities];
+        int previous = this.routes[offset + (start + this.cities - 1) % this.cities];
+        return next <= previous ? 1 : -1;
+    }
+
+    /**
+     * Create a snapshot of a slot
+     *
+     * @param slot The slot
+     * @return Individual holding a copy of the route and the values for this slot
+     */
+
+    public Individual toIndividual(int slot) {
+        return new Individual(this.getRoute(slot), this.getDistance(slot), this.getCost(slot),
+                this.getParetoRank(slot), this.getCrowdingDistance(slot));
+    }
+}
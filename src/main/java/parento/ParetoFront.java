@@ -1,26 +1,33 @@
 package parento;
 
 import nsga.Individual;
+import nsga.Population;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class ParetoFront {
 
-    private ArrayList<Individual> members;
+    private Population population;
+    private int[] members;
+    private int size;
     private int index;
 
     /**
      * Constructor
      *
      * @param index The layer id
+     * @param population The population the members are slots in
      */
 
-    public ParetoFront(int index) {
+    public ParetoFront(int index, Population population) {
         // Create empty list of members
-        this.members = new ArrayList<>();
+        this.members = new int[16];
+        this.size = 0;
 
         // The index
         this.index = index;
+        this.population = population;
     }
 
     /**
@@ -34,35 +41,40 @@ public class ParetoFront {
     }
 
     /**
-     * Add member to the front
+     * Getter for the population the members belong to
      *
-     * @param individual Individual to add
+     * @return The population
      */
 
-    public void addMember(Individual individual) {
-        // Add this individual to the front
-        members.add(individual);
+    public Population getPopulation() {
+        return this.population;
     }
 
     /**
-     * Add all from a list to our members list
+     * Add member to the front
      *
-     * @param list Input list to take members from
+     * @param slot Slot of the individual to add
      */
 
-    public void addAll(ArrayList<Individual> list) {
-        members.addAll(list);
+    public void addMember(int slot) {
+        // Grow if needed
+        if (this.size == this.members.length) {
+            this.members = Arrays.copyOf(this.members, this.size * 2);
+        }
+
+        // Add this individual to the front
+        this.members[this.size++] = slot;
     }
 
     /**
      * Get member of this front by an id
      *
      * @param index Index to fetch member of
-     * @return The member with corresponding index
+     * @return The slot of the member with corresponding index
      */
 
-    public Individual getMember(int index) {
-        return this.members.get(index);
+    public int getMember(int index) {
+        return this.members[index];
     }
 
     /**
@@ -72,16 +84,30 @@ public class ParetoFront {
      */
 
     public int getSize() {
-        return this.members.size();
+        return this.size;
     }
 
     /**
-     * Return all members of this front
+     * Return all members of this front. Only the first getSize() entries are in use.
      *
-     * @return ArrayList with members
+     * @return Array with member slots
      */
 
-    public ArrayList<Individual> getAllMembers() {
+    public int[] getAllMembers() {
         return this.members;
     }
+
+    /**
+     * Create snapshots of all members of this front
+     *
+     * @return ArrayList with members
+     */
+
+    public ArrayList<Individual> toIndividuals() {
+        ArrayList<Individual> individuals = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            individuals.add(this.population.toIndividual(this.members[i]));
+        }
+        return individuals;
+    }
 }
@@ -0,0 +1,229 @@
+package parser;
+
+public class CompactMatrixStorage implements MatrixStorage {
+
+    // Largest quantized value
+    private static final int LEVELS = 65535;
+
+    private int stride;
+    private boolean triangular;
+    private MatrixPrecision precision;
+
+    // The distance and cost of each edge next to each other, only the array for the precision is used
+    private double[] doubles;
+    private float[] floats;
+    private char[] quantized;
+
+    // Quantized values are decoded as minimum + value * scale
+    private double distanceMinimum;
+    private double distanceScale;
+    private double costMinimum;
+    private double costScale;
+
+    // Largest difference between a stored value and the original value
+    private double distanceError;
+    private double costError;
+
+    /**
+     * Constructor
+     *
+     * @param distances The distance matrix, indexed from 0
+     * @param costs The cost matrix, indexed from 0
+     * @param triangular True to only store the lower triangle, the matrices are taken to be symmetric
+     * @param precision How to store each value
+     */
+
+    public CompactMatrixStorage(double[][] distances, double[][] costs, boolean triangular,
+                                MatrixPrecision precision) {
+        int cities = distances.length;
+        this.stride = cities + 1;
+        this.triangular = triangular;
+        this.precision = precision;
+
+        // Find the quantization steps
+        if (precision == MatrixPrecision.QUANTIZED) {
+            double[] distanceRange = quantization(distances);
+            this.distanceMinimum = distanceRange[0];
+            this.distanceScale = distanceRange[1];
+            double[] costRange = quantization(costs);
+            this.costMinimum = costRange[0];
+            this.costScale = costRange[1];
+        }
+
+        // Allocate room for every edge, the ids start at 1 so row and column 0 are not used. Sizes that fit keep the
+        // index math in int from overflowing
+        long edges = triangular ? (long) this.stride * (this.stride + 1) / 2 : (long) this.stride * this.stride;
+        int length = Matrices.flatLength(2 * edges, cities, triangular ? "triangular" : "interleaved");
+        if (precision == MatrixPrecision.DOUBLE) {
+            this.doubles = new double[length];
+        }
+        else if (precision == MatrixPrecision.FLOAT) {
+            this.floats = new float[length];
+        }
+        else {
+            this.quantized = new char[length];
+        }
+
+        // Store the values, for the triangle only the ones below the diagonal
+        for (int from = 0; from < cities; from++) {
+            for (int to = 0; to < cities; to++) {
+                if (!triangular || to <= from) {
+                    this.store(this.index(from + 1, to + 1), distances[from][to], costs[from][to]);
+                }
+            }
+        }
+
+        // Measure the worst error against the original values
+        for (int from = 0; from < cities; from++) {
+            for (int to = 0; to < cities; to++) {
+                this.distanceError = Math.max(this.distanceError,
+                        Math.abs(this.getDistance(from + 1, to + 1) - distances[from][to]));
+                this.costError = Math.max(this.costError, Math.abs(this.getCost(from + 1, to + 1) - costs[from][to]));
+            }
+        }
+    }
+
+    /**
+     * Find the minimum and step size to quantize a matrix with. Integer values that fit in the levels get step 1,
+     * which is exact.
+     *
+     * @param matrix The matrix
+     * @return The minimum followed by the step size
+     */
+
+    private static double[] quantization(double[][] matrix) {
+        double minimum = Double.POSITIVE_INFINITY;
+        double maximum = Double.NEGATIVE_INFINITY;
+        boolean integers = true;
+        for (double[] row : matrix) {
+            for (double value : row) {
+                minimum = Math.min(minimum, value);
+                maximum = Math.max(maximum, value);
+                integers &= value == Math.rint(value);
+            }
+        }
+
+        // Empty matrix
+        if (minimum > maximum) {
+            return new double[] {0.0, 1.0};
+        }
+
+        double range = maximum - minimum;
+        double scale = integers && range <= LEVELS ? 1.0 : Math.max(range / LEVELS, Double.MIN_NORMAL);
+        return new double[] {minimum, scale};
+    }
+
+    /**
+     * Find where an edge is stored
+     *
+     * @param fromId From id, starting at 1
+     * @param toId To id, starting at 1
+     * @return Position of the distance, the cost follows it
+     */
+
+    private int index(int fromId, int toId) {
+        if (this.triangular) {
+            int row = Math.max(fromId, toId);
+            return 2 * (row * (row + 1) / 2 + Math.min(fromId, toId));
+        }
+        return 2 * (fromId * this.stride + toId);
+    }
+
+    /**
+     * Store the values of an edge in the selected precision
+     *
+     * @param index Position of the distance
+     * @param distance The distance
+     * @param cost The cost
+     */
+
+    private void store(int index, double distance, double cost) {
+        if (this.precision == MatrixPrecision.DOUBLE) {
+            this.doubles[index] = distance;
+            this.doubles[index + 1] = cost;
+        }
+        else if (this.precision == MatrixPrecision.FLOAT) {
+            this.floats[index] = (float) distance;
+            this.floats[index + 1] = (float) cost;
+        }
+        else {
+            this.quantized[index] = (char) Math.round((distance - this.distanceMinimum) / this.distanceScale);
+            this.quantized[index + 1] = (char) Math.round((cost - this.costMinimum) / this.costScale);
+        }
+    }
+
+    @Override
+    public double getDistance(int fromId, int toId) {
+        int index = this.index(fromId, toId);
+        if (this.precision == MatrixPrecision.DOUBLE) {
+            return this.doubles[index];
+        }
+        else if (this.precision == MatrixPrecision.FLOAT) {
+            return this.floats[index];
+        }
+        return this.distanceMinimum + this.quantized[index] * this.distanceScale;
+    }
+
+    @Override
+    public double getCost(int fromId, int toId) {
+        int index = this.index(fromId, toId) + 1;
+        if (this.precision == MatrixPrecision.DOUBLE) {
+            return this.doubles[index];
+        }
+        else if (this.precision == MatrixPrecision.FLOAT) {
+            return this.floats[index];
+        }
+        return this.costMinimum + this.quantized[index] * this.costScale;
+    }
+
+    @Override
+    public void evaluate(int[] routes, int offset, int length, double[] distances, double[] costs, int index) {
+        int last = offset + length - 1;
+
+        // One loop for each precision, so the precision is not checked for every edge
+        if (this.precision == MatrixPrecision.DOUBLE) {
+            double distance = 0.0;
+            double cost = 0.0;
+            for (int i = offset; i <= last; i++) {
+                int edge = this.index(routes[i], routes[i == last ? offset : i + 1]);
+                distance += this.doubles[edge];
+                cost += this.doubles[edge + 1];
+            }
+            distances[index] = distance;
+            costs[index] = cost;
+        }
+        else if (this.precision == MatrixPrecision.FLOAT) {
+            double distance = 0.0;
+            double cost = 0.0;
+            for (int i = offset; i <= last; i++) {
+                int edge = this.index(routes[i], routes[i == last ? offset : i + 1]);
+                distance += this.floats[edge];
+                cost += this.floats[edge + 1];
+            }
+            distances[index] = distance;
+            costs[index] = cost;
+        }
+        else {
+            // Sum the quantized values exactly, and decode the sum once
+            long distance = 0;
+            long cost = 0;
+            for (int i = offset; i <= last; i++) {
+                int edge = this.index(routes[i], routes[i == last ? offset : i + 1]);
+                distance += this.quantized[edge];
+                cost += this.quantized[edge + 1];
+            }
+            distances[index] = length * this.distanceMinimum + distance * this.distanceScale;
+            costs[index] = length * this.costMinimum + cost * this.costScale;
+        }
+    }
+
+    @Override
+    public double getDistanceError() {
+        return this.distanceError;
+    }
+
+    @Override
+    public double getCostError() {
+        return this.costError;
+    }
+}
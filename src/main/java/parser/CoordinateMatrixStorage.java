@@ -0,0 +1,186 @@
+package parser;
+
+public class CoordinateMatrixStorage implements MatrixStorage {
+
+    // The coordinates of both objectives packed together, city id i starts at 4 * i: distance x, distance y, cost x,
+    // cost y. Id 0 is not used
+    private double[] points;
+
+    private Coordinates.Metric distanceMetric;
+    private Coordinates.Metric costMetric;
+
+    // Number of edges in the cache of each thread, a power of two. 0 turns the cache off
+    private int cacheSize;
+
+    // Recently used edges for each thread
+    private ThreadLocal<EdgeCache> caches;
+
+    /**
+     * Constructor
+     *
+     * @param distances Coordinates the distances are calculated from
+     * @param costs Coordinates the costs are calculated from
+     * @param cacheSize Number of edges to cache for each thread, rounded up to a power of two. 0 turns the cache off
+     */
+
+    public CoordinateMatrixStorage(Coordinates distances, Coordinates costs, int cacheSize) {
+        if (distances.getSize() != costs.getSize()) {
+            throw new IllegalArgumentException("Got " + distances.getSize() + " distance coordinates but " +
+                    costs.getSize() + " cost coordinates");
+        }
+
+        int cities = distances.getSize();
+        this.points = new double[4 * (cities + 1)];
+        for (int i = 0; i < cities; i++) {
+            int point = 4 * (i + 1);
+            this.points[point] = distances.getX(i);
+            this.points[point + 1] = distances.getY(i);
+            this.points[point + 2] = costs.getX(i);
+            this.points[point + 3] = costs.getY(i);
+        }
+        this.distanceMetric = distances.getMetric();
+        this.costMetric = costs.getMetric();
+
+        this.cacheSize = 0;
+        if (cacheSize > 0) {
+            this.cacheSize = 1;
+            while (this.cacheSize < cacheSize) {
+                this.cacheSize <<= 1;
+            }
+        }
+        this.caches = ThreadLocal.withInitial(() -> new EdgeCache(this.cacheSize));
+    }
+
+    @Override
+    public double getDistance(int fromId, int toId) {
+        if (this.cacheSize == 0) {
+            return this.computeDistance(fromId, toId);
+        }
+        return this.caches.get().distance(this, fromId, toId);
+    }
+
+    @Override
+    public double getCost(int fromId, int toId) {
+        if (this.cacheSize == 0) {
+            return this.computeCost(fromId, toId);
+        }
+        return this.caches.get().cost(this, fromId, toId);
+    }
+
+    @Override
+    public void evaluate(int[] routes, int offset, int length, double[] distances, double[] costs, int index) {
+        EdgeCache cache = this.cacheSize == 0 ? null : this.caches.get();
+        int last = offset + length - 1;
+        double distance = 0.0;
+        double cost = 0.0;
+
+        // Sum both objectives in one pass, computing the edges that are not cached
+        for (int i = offset; i <= last; i++) {
+            int from = routes[i];
+            int to = routes[i == last ? offset : i + 1];
+            if (cache == null) {
+                distance += this.computeDistance(from, to);
+                cost += this.computeCost(from, to);
+            }
+            else {
+                int entry = cache.lookup(this, from, to);
+                distance += cache.distances[entry];
+                cost += cache.costs[entry];
+            }
+        }
+
+        distances[index] = distance;
+        costs[index] = cost;
+    }
+
+    /**
+     * Calculate the distance of an edge from the coordinates
+     *
+     * @param fromId From id, starting at 1
+     * @param toId To id, starting at 1
+     * @return Distance
+     */
+
+    private double computeDistance(int fromId, int toId) {
+        int from = 4 * fromId;
+        int to = 4 * toId;
+        return this.distanceMetric.distance(this.points[from] - this.points[to],
+                this.points[from + 1] - this.points[to + 1]);
+    }
+
+    /**
+     * Calculate the cost of an edge from the coordinates
+     *
+     * @param fromId From id, starting at 1
+     * @param toId To id, starting at 1
+     * @return Cost
+     */
+
+    private double computeCost(int fromId, int toId) {
+        int from = 4 * fromId + 2;
+        int to = 4 * toId + 2;
+        return this.costMetric.distance(this.points[from] - this.points[to],
+                this.points[from + 1] - this.points[to + 1]);
+    }
+
+    @Override
+    public double getDistanceError() {
+        return 0.0;
+    }
+
+    @Override
+    public double getCostError() {
+        return 0.0;
+    }
+
+    /**
+     * Direct mapped cache of recently used edges, owned by a single thread. The edges are symmetric, so both
+     * directions share an entry.
+     */
+
+    private static class EdgeCache {
+
+        // The edge in each entry, packed as smaller id * 2^32 + larger id. 0 is never a valid edge
+        private long[] keys;
+        private double[] distances;
+        private double[] costs;
+
+        EdgeCache(int size) {
+            this.keys = new long[size];
+            this.distances = new double[size];
+            this.costs = new double[size];
+        }
+
+        double distance(CoordinateMatrixStorage storage, int fromId, int toId) {
+            return this.distances[this.lookup(storage, fromId, toId)];
+        }
+
+        double cost(CoordinateMatrixStorage storage, int fromId, int toId) {
+            return this.costs[this.lookup(storage, fromId, toId)];
+        }
+
+        /**
+         * Find the entry for an edge, computing it if it is not cached
+         *
+         * @param storage Storage to compute the edge with
+         * @param fromId From id, starting at 1
+         * @param toId To id, starting at 1
+         * @return The entry
+         */
+
+        int lookup(CoordinateMatrixStorage storage, int fromId, int toId) {
+            long key = ((long) Math.min(fromId, toId) << 32) | Math.max(fromId, toId);
+
+            // Mix the key so neighbouring edges spread over the entries
+            long mixed = key * 0x9E3779B97F4A7C15L;
+            int entry = (int) (mixed >>> 32) & (this.keys.length - 1);
+
+            if (this.keys[entry] != key) {
+                this.keys[entry] = key;
+                this.distances[entry] = storage.computeDistance(fromId, toId);
+                this.costs[entry] = storage.computeCost(fromId, toId);
+            }
+            return entry;
+        }
+    }
+}
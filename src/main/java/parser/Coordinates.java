@@ -0,0 +1,140 @@
+package parser;
+
+public class Coordinates {
+
+    /**
+     * How the distance between two points is calculated
+     */
+
+    public enum Metric {
+
+        // Plain euclidean distance
+        EUCLIDEAN,
+
+        // Euclidean distance rounded to the nearest integer (TSPLIB EUC_2D)
+        EUC_2D,
+
+        // Euclidean distance rounded up (TSPLIB CEIL_2D)
+        CEIL_2D,
+
+        // Pseudo euclidean distance (TSPLIB ATT)
+        ATT;
+
+        /**
+         * Get the distance between two points
+         *
+         * @param dx Difference along x
+         * @param dy Difference along y
+         * @return The distance
+         */
+
+        public double distance(double dx, double dy) {
+            switch (this) {
+                case EUC_2D:
+                    return Math.rint(Math.sqrt(dx * dx + dy * dy));
+                case CEIL_2D:
+                    return Math.ceil(Math.sqrt(dx * dx + dy * dy));
+                case ATT:
+                    double r = Math.sqrt((dx * dx + dy * dy) / 10.0);
+                    double t = Math.rint(r);
+                    return t < r ? t + 1 : t;
+                default:
+                    return Math.sqrt(dx * dx + dy * dy);
+            }
+        }
+    }
+
+    private double[] x;
+    private double[] y;
+    private Metric metric;
+
+    /**
+     * Constructor
+     *
+     * @param x The x coordinates, indexed from 0
+     * @param y The y coordinates, indexed from 0
+     * @param metric How to calculate the distance between two points
+     */
+
+    public Coordinates(double[] x, double[] y, Metric metric) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("Got " + x.length + " x coordinates but " + y.length + " y coordinates");
+        }
+
+        this.x = x;
+        this.y = y;
+        this.metric = metric;
+    }
+
+    /**
+     * Get the number of points
+     *
+     * @return Number of points
+     */
+
+    public int getSize() {
+        return this.x.length;
+    }
+
+    /**
+     * Get the distance between two points
+     *
+     * @param from First point, indexed from 0
+     * @param to Second point, indexed from 0
+     * @return The distance
+     */
+
+    public double distance(int from, int to) {
+        return this.metric.distance(this.x[from] - this.x[to], this.y[from] - this.y[to]);
+    }
+
+    /**
+     * Get the x coordinate of a point
+     *
+     * @param point The point, indexed from 0
+     * @return The x coordinate
+     */
+
+    public double getX(int point) {
+        return this.x[point];
+    }
+
+    /**
+     * Get the y coordinate of a point
+     *
+     * @param point The point, indexed from 0
+     * @return The y coordinate
+     */
+
+    public double getY(int point) {
+        return this.y[point];
+    }
+
+    /**
+     * Get how the distance between two points is calculated
+     *
+     * @return The metric
+     */
+
+    public Metric getMetric() {
+        return this.metric;
+    }
+
+    /**
+     * Calculate the distance between every pair of points
+     *
+     * @return The matrix, indexed from 0
+     */
+
+    public double[][] toMatrix() {
+        int size = this.getSize();
+        double[][] matrix = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < i; j++) {
+                matrix[i][j] = this.distance(i, j);
+                matrix[j][i] = matrix[i][j];
+            }
+        }
+        return matrix;
+    }
+}
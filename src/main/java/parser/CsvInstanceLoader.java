@@ -0,0 +1,94 @@
+package parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class CsvInstanceLoader implements InstanceLoader {
+
+    // Separators, fields are kept empty between two commas or semicolons
+    private static final Pattern DELIMITED = Pattern.compile("[,;]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // The matrices, one row of the matrix on each line
+    private File distanceFile;
+    private File costFile;
+
+    /**
+     * Constructor
+     *
+     * @param distanceFile File holding the distance matrix
+     * @param costFile File holding the cost matrix
+     */
+
+    public CsvInstanceLoader(File distanceFile, File costFile) {
+        this.distanceFile = distanceFile;
+        this.costFile = costFile;
+    }
+
+    @Override
+    public Map load() throws IOException {
+        double[][] distances = read(this.distanceFile);
+        double[][] costs = read(this.costFile);
+        return new Map(this.distanceFile.getName() + "+" + this.costFile.getName(), distances, costs);
+    }
+
+    /**
+     * Read a square matrix. Values are separated by commas, semicolons or whitespace. Rows may be shorter than the
+     * matrix and fields may be empty, the missing values are taken from the other side of the diagonal.
+     *
+     * @param file The file
+     * @return The matrix, indexed from 0
+     * @throws IOException If the file can not be read or holds something else than numbers
+     */
+
+    private static double[][] read(File file) throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        int lineNumber = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                String[] fields = DELIMITED.matcher(line).find() ? DELIMITED.split(line, -1) : WHITESPACE.split(line);
+                double[] row = new double[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    String field = fields[i].trim();
+                    try {
+                        row[i] = field.isEmpty() ? Double.NaN : Double.parseDouble(field);
+                    } catch (NumberFormatException e) {
+                        throw new IOException(file + ":" + lineNumber + ": not a number: " + field, e);
+                    }
+                }
+                rows.add(row);
+            }
+        }
+
+        // Pad the rows to a square matrix
+        int cities = rows.size();
+        double[][] matrix = new double[cities][];
+        for (int i = 0; i < cities; i++) {
+            double[] row = rows.get(i);
+            if (row.length > cities) {
+                throw new IOException(file + ": row " + (i + 1) + " has " + row.length + " values, but there are " +
+                        cities + " rows");
+            }
+            matrix[i] = Arrays.copyOf(row, cities);
+            Arrays.fill(matrix[i], row.length, cities, Double.NaN);
+        }
+
+        Matrices.fillMissing(matrix);
+        return matrix;
+    }
+}
@@ -0,0 +1,15 @@
+package parser;
+
+import java.io.IOException;
+
+public interface InstanceLoader {
+
+    /**
+     * Load the instance
+     *
+     * @return The instance
+     * @throws IOException If the instance can not be read
+     */
+
+    Map load() throws IOException;
+}
@@ -0,0 +1,63 @@
+package parser;
+
+import java.io.File;
+import java.io.IOException;
+
+public class Instances {
+
+    /**
+     * Create a loader from a description of the instance:
+     *
+     * xlsx                              The instance in the resources
+     * xlsx:distance.xlsx,cost.xlsx      Two workbooks with matrices
+     * csv:distance.csv,cost.csv         Two files with matrices
+     * tsplib:distance.tsp,cost.tsp      Two TSPLIB files with node coordinates
+     * random:cities[,seed]              Random euclidean instance
+     *
+     * @param description The description
+     * @return The loader
+     * @throws IOException If the description is invalid
+     */
+
+    public static InstanceLoader loader(String description) throws IOException {
+        int colon = description.indexOf(':');
+        String type = colon == -1 ? description : description.substring(0, colon);
+        String[] arguments = colon == -1 ? new String[0] : description.substring(colon + 1).split(",");
+
+        if (type.equals("xlsx") && arguments.length == 0) {
+            return XlsxInstanceLoader.bundled();
+        }
+        else if (type.equals("xlsx") && arguments.length == 2) {
+            return new XlsxInstanceLoader(new File(arguments[0]), new File(arguments[1]));
+        }
+        else if (type.equals("csv") && arguments.length == 2) {
+            return new CsvInstanceLoader(new File(arguments[0]), new File(arguments[1]));
+        }
+        else if (type.equals("tsplib") && arguments.length == 2) {
+            return new TsplibInstanceLoader(new File(arguments[0]), new File(arguments[1]));
+        }
+        else if (type.equals("random") && (arguments.length == 1 || arguments.length == 2)) {
+            try {
+                int cities = Integer.parseInt(arguments[0]);
+                long seed = arguments.length == 2 ? Long.parseLong(arguments[1]) : 0L;
+                return new RandomInstanceLoader(cities, seed);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid random instance: " + description, e);
+            }
+        }
+
+        throw new IOException("Unknown instance: " + description);
+    }
+
+    /**
+     * Load an instance from a description, see loader
+     *
+     * @param description The description
+     * @return The instance
+     * @throws IOException If the instance can not be loaded
+     */
+
+    public static Map load(String description) throws IOException {
+        return loader(description).load();
+    }
+}
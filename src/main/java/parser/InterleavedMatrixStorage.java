@@ -0,0 +1,79 @@
+package parser;
+
+public class InterleavedMatrixStorage implements MatrixStorage {
+
+    // Row length, one more than the number of cities so the ids can be used without subtracting 1
+    private int stride;
+
+    // The distance and cost of each edge stored next to each other, the edge from a to b starts at
+    // 2 * (a * stride + b). The constructor rejects instances too large for this to fit in an int
+    private double[] edges;
+
+    /**
+     * Constructor
+     *
+     * @param distances The distance matrix, indexed from 0
+     * @param costs The cost matrix, indexed from 0
+     */
+
+    public InterleavedMatrixStorage(double[][] distances, double[][] costs) {
+        int cities = distances.length;
+        this.stride = cities + 1;
+        this.edges = new double[Matrices.flatLength(2L * this.stride * this.stride, cities, "interleaved")];
+
+        for (int from = 0; from < cities; from++) {
+            for (int to = 0; to < cities; to++) {
+                int edge = 2 * ((from + 1) * this.stride + to + 1);
+                this.edges[edge] = distances[from][to];
+                this.edges[edge + 1] = costs[from][to];
+            }
+        }
+    }
+
+    @Override
+    public double getDistance(int fromId, int toId) {
+        return this.edges[2 * (fromId * this.stride + toId)];
+    }
+
+    @Override
+    public double getCost(int fromId, int toId) {
+        return this.edges[2 * (fromId * this.stride + toId) + 1];
+    }
+
+    @Override
+    public void evaluate(int[] routes, int offset, int length, double[] distances, double[] costs, int index) {
+        double[] edges = this.edges;
+        int stride = this.stride;
+        int last = offset + length - 1;
+        double distance = 0.0;
+        double cost = 0.0;
+
+        // Accumulate both objectives in one pass, the two values of an edge share a cache line
+        int from = routes[offset];
+        for (int i = offset + 1; i <= last; i++) {
+            int to = routes[i];
+            int edge = 2 * (from * stride + to);
+            distance += edges[edge];
+            cost += edges[edge + 1];
+            from = to;
+        }
+
+        // Add last element to first element to complete the circle
+        int edge = 2 * (from * stride + routes[offset]);
+        distance += edges[edge];
+        cost += edges[edge + 1];
+
+        distances[index] = distance;
+        costs[index] = cost;
+    }
+
+    @Override
+    public double getDistanceError() {
+        return 0.0;
+    }
+
+    @Override
+    public double getCostError() {
+        return 0.0;
+    }
+}
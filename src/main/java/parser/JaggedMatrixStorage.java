@@ -0,0 +1,66 @@
+package parser;
+
+public class JaggedMatrixStorage implements MatrixStorage {
+
+    // Distance and cost maps
+    private double[][] distanceMap;
+    private double[][] costMap;
+
+    /**
+     * Constructor
+     *
+     * @param distances The distance matrix, indexed from 0
+     * @param costs The cost matrix, indexed from 0
+     */
+
+    public JaggedMatrixStorage(double[][] distances, double[][] costs) {
+        this.distanceMap = distances;
+        this.costMap = costs;
+    }
+
+    @Override
+    public double getDistance(int fromId, int toId) {
+        return distanceMap[fromId - 1][toId - 1];
+    }
+
+    @Override
+    public double getCost(int fromId, int toId) {
+        return costMap[fromId - 1][toId - 1];
+    }
+
+    @Override
+    public void evaluate(int[] routes, int offset, int length, double[] distances, double[] costs, int index) {
+        int last = offset + length - 1;
+        double distance = 0.0;
+        double cost = 0.0;
+
+        // Accumulate distances
+        for (int i = offset + 1; i <= last; i++) {
+            distance += this.getDistance(routes[i - 1], routes[i]);
+        }
+
+        // Add last element to first element to complete the circle
+        distance += this.getDistance(routes[last], routes[offset]);
+
+        // Accumulate costs
+        for (int i = offset + 1; i <= last; i++) {
+            cost += this.getCost(routes[i - 1], routes[i]);
+        }
+
+        // Add last element to first element to complete the circle
+        cost += this.getCost(routes[last], routes[offset]);
+
+        distances[index] = distance;
+        costs[index] = cost;
+    }
+
+    @Override
+    public double getDistanceError() {
+        return 0.0;
+    }
+
+    @Override
+    public double getCostError() {
+        return 0.0;
+    }
+}
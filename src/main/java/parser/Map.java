@@ -1,158 +1,100 @@
 package parser;
 
 import ea.Settings;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.net.URISyntaxException;
 
 public class Map {
 
-    // Instance variable
-    private static Map ourInstance = new Map();
+    // Number of nearest cities found for each city when the settings leave it at 0
+    private static final int DEFAULT_NEIGHBOUR_LIST_SIZE = 10;
+
+    // Name of the instance, used in logs
+    private String name;
+
+    // Number of cities
+    private int cities;
+
+    // The distance and cost maps in the layout selected in the settings
+    private MatrixStorage storage;
 
-    // Distance and cost maps
-    private double[][] distanceMap;
-    private double[][] costMap;
+    // The nearest cities of each city, null until first used
+    private volatile NeighbourLists neighbours;
 
     /**
-     * Get instance of map
+     * Create an instance from two full matrices, stored in the layout and precision selected in the settings
      *
-     * @return Singleton instance
+     * @param name Name of the instance
+     * @param distances The distance matrix, indexed from 0
+     * @param costs The cost matrix, indexed from 0
      */
 
-    public static Map getInstance() {
-        return ourInstance;
-    }
+    public Map(String name, double[][] distances, double[][] costs) {
+        if (distances.length != costs.length) {
+            throw new IllegalArgumentException("Instance " + name + " has " + distances.length + " distances but " +
+                    costs.length + " costs");
+        }
 
-    /**
-     * Singleton constructor
-     */
+        this.name = name;
+        this.cities = distances.length;
 
-    private Map() {
-        try {
-            // Load the files
-            FileInputStream[] streams = getFiles();
-
-            // Parse out the date from the xlxs files
-            this.loadCitiesFromXlsx(streams);
-        } catch (URISyntaxException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
+        // Store the matrices in the selected layout
+        this.storage = Settings.matrixLayout.create(distances, costs, Settings.matrixPrecision);
+        if (this.storage.getDistanceError() > 0.0 || this.storage.getCostError() > 0.0) {
+            System.out.println("[Matrix] " + Settings.matrixLayout + " " + Settings.matrixPrecision +
+                    ", worst case error distance: " + this.storage.getDistanceError() + " cost: " +
+                    this.storage.getCostError());
         }
     }
 
     /**
-     * Get files from resources that holds the costs and distances
+     * Create an instance from an existing storage
      *
-     * @return Stream of files
-     * @throws URISyntaxException Error
-     * @throws FileNotFoundException Error
+     * @param name Name of the instance
+     * @param cities Number of cities
+     * @param storage The distance and cost maps
      */
 
-    private FileInputStream[] getFiles() throws URISyntaxException, FileNotFoundException {
-        FileInputStream[] files = new FileInputStream[2];
-
-        File costFile = new File(this.getClass().getResource("/Cost_reformat.xlsx").toURI());
-        File distanceFile = new File(this.getClass().getResource("/Distance_reformat.xlsx").toURI());
-
-        files[0] = new FileInputStream(costFile);
-        files[1] = new FileInputStream(distanceFile);
-
-        return files;
+    public Map(String name, int cities, MatrixStorage storage) {
+        this.name = name;
+        this.cities = cities;
+        this.storage = storage;
     }
 
     /**
-     * Create cities from the source file
+     * Create an instance from the coordinates of the cities. Depending on the settings the edges are either stored
+     * as matrices, or computed from the coordinates when needed, which uses memory linear in the number of cities.
      *
-     * @param size Size of the matrix to create
+     * @param name Name of the instance
+     * @param distances Coordinates the distances are calculated from
+     * @param costs Coordinates the costs are calculated from
+     * @return The instance
      */
 
-    private void createCities(int size) {
-
-        // Initialize map tables
-        distanceMap = new double[size][];
-        costMap = new double[size][];
-        for (int i = 0; i < size; i++) {
-            distanceMap[i] = new double[size];
-            costMap[i] = new double[size];
+    public static Map fromCoordinates(String name, Coordinates distances, Coordinates costs) {
+        if (Settings.lazyCoordinates) {
+            return new Map(name, distances.getSize(), new CoordinateMatrixStorage(distances, costs,
+                    Settings.edgeCacheSize));
         }
-
+        return new Map(name, distances.toMatrix(), costs.toMatrix());
     }
 
     /**
-     * Load the cities cost and distance from the xlsx files
+     * Get the name of the instance
      *
-     * @param streams Stream to read from
-     * @throws IOException If file is not existing
+     * @return The name
      */
 
-    private void loadCitiesFromXlsx(FileInputStream[] streams) throws IOException {
-        // Fetch workbooks
-        XSSFWorkbook[] workbooks = new XSSFWorkbook[2];
-        workbooks[0] = new XSSFWorkbook(streams[0]);
-        workbooks[1] = new XSSFWorkbook(streams[1]);
-
-        // Fetch sheets
-        XSSFSheet costSheet = workbooks[0].getSheetAt(0);
-        XSSFSheet distanceSheet = workbooks[1].getSheetAt(0);
-
-        // Find size of document
-        int idx = 0;
-        while (true) {
-            Cell cell = costSheet.getRow(idx + 1).getCell(0, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-
-            if (cell == null) {
-                break;
-            }
-            else {
-                idx++;
-            }
-        }
-
-        // Store number of cities in the settings
-        Settings.cities = idx;
-
-        // Create the cities
-        this.createCities(idx);
-
-        // Loop the documents
-        for (int row = 1; row <= Settings.cities; row++) {
-            for (int column = 1; column <= Settings.cities; column++) {
-
-                // Fecth each cell
-                Cell costCell = costSheet.getRow(row).getCell(column, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-                Cell distanceCell = distanceSheet.getRow(row).getCell(column, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-
-                // Get cost and update both ways, i.e 3 -> 6 and 6 -> 3 **
-                if (costCell != null) {
-                    if (costCell.getCellType() == 0) {
-                        double cost = costCell.getNumericCellValue();
-
-                        costMap[row - 1][column - 1] = cost;
-                        costMap[column - 1][row - 1] = cost;
-                    }
-                }
-
-                // Get distance and update both ways, i.e 3 -> 6 and 6 -> 3 **
-                if (distanceCell != null) {
-                    if (distanceCell.getCellType() == 0) {
-                        double distance = distanceCell.getNumericCellValue();
+    public String getName() {
+        return name;
+    }
 
-                        distanceMap[row - 1][column - 1] = distance;
-                        distanceMap[column - 1][row - 1] = distance;
+    /**
+     * Get the number of cities
+     *
+     * @return Number of cities
+     */
 
-                    }
-                }
-            }
-        }
+    public int getCities() {
+        return cities;
     }
 
     /**
@@ -164,9 +106,7 @@ public class Map {
      */
 
     public double getDistance(int fromId, int toId) {
-        int fromCity = fromId - 1;
-        int toCity = toId - 1;
-        return distanceMap[fromCity][toCity];
+        return storage.getDistance(fromId, toId);
     }
 
     /**
@@ -178,9 +118,39 @@ public class Map {
      */
 
     public double getCost(int fromId, int toId) {
-        int fromCity = fromId - 1;
-        int toCity = toId - 1;
-        return costMap[fromCity][toCity];
+        return storage.getCost(fromId, toId);
     }
-}
 
+    /**
+     * Get the distance and cost maps
+     *
+     * @return The storage holding both maps
+     */
+
+    public MatrixStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Get the nearest cities of each city. The lists are built the first time they are asked for, so instances that
+     * are only used without the features that need them never pay for them.
+     *
+     * @return The neighbour lists
+     */
+
+    public NeighbourLists getNeighbours() {
+        NeighbourLists lists = this.neighbours;
+        if (lists == null) {
+            synchronized (this) {
+                lists = this.neighbours;
+                if (lists == null) {
+                    int size = Settings.neighbourListSize > 0 ? Settings.neighbourListSize :
+                            DEFAULT_NEIGHBOUR_LIST_SIZE;
+                    lists = new NeighbourLists(this, size);
+                    this.neighbours = lists;
+                }
+            }
+        }
+        return lists;
+    }
+}
@@ -0,0 +1,42 @@
+package parser;
+
+public class Matrices {
+
+    // Longest array the common virtual machines can allocate
+    private static final long MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    /**
+     * Check that a flat matrix fits in a single array. Indices into an array that fits can be computed in int without
+     * overflowing, as long as no intermediate value is larger than the length.
+     *
+     * @param length Number of values, computed in long
+     * @param cities Number of cities
+     * @param layout Name of the layout, for the error message
+     * @return The length as an int
+     */
+
+    public static int flatLength(long length, int cities, String layout) {
+        if (length > MAX_ARRAY_LENGTH) {
+            throw new IllegalArgumentException("An instance with " + cities + " cities needs " + length +
+                    " values in the " + layout + " layout, more than an array can hold. Use --matrix-layout jagged");
+        }
+        return (int) length;
+    }
+
+    /**
+     * Fill in the missing (NaN) values of a square matrix. Instances often only fill one half of the matrix, so a
+     * value missing on one side of the diagonal is taken from the other side. Values missing on both sides are 0.
+     *
+     * @param matrix The matrix, changed in place
+     */
+
+    public static void fillMissing(double[][] matrix) {
+        for (int i = 0; i < matrix.length; i++) {
+            for (int j = 0; j < matrix.length; j++) {
+                if (Double.isNaN(matrix[i][j])) {
+                    matrix[i][j] = Double.isNaN(matrix[j][i]) ? 0.0 : matrix[j][i];
+                }
+            }
+        }
+    }
+}
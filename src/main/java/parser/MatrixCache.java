@@ -0,0 +1,271 @@
+package parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+public class MatrixCache {
+
+    // Identifies the file format, "TSPM"
+    private static final int MAGIC = 0x5453504D;
+    private static final int VERSION = 1;
+
+    // Type of the stored values
+    private static final int DTYPE_FLOAT64 = 1;
+
+    // Magic, version, cities, dtype and the two source checksums
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8 + 8;
+
+    // Largest part of the compiled file mapped at once. Windows hold whole rows, so a row never spans two windows
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    // Size of the buffer the source files are streamed through to checksum them
+    private static final int CHECKSUM_BUFFER_SIZE = 1 << 16;
+
+    // The compiled file
+    private File file;
+
+    // Checksums of the files the matrices are parsed from
+    private long distanceChecksum;
+    private long costChecksum;
+
+    // The loaded matrices
+    private int cities;
+    private double[][] distances;
+    private double[][] costs;
+
+    /**
+     * Constructor
+     *
+     * @param file The compiled file, created on store
+     * @param distanceSource File the distances are parsed from
+     * @param costSource File the costs are parsed from
+     * @throws IOException If a source can not be read
+     */
+
+    public MatrixCache(File file, File distanceSource, File costSource) throws IOException {
+        this.file = file;
+        this.distanceChecksum = checksum(distanceSource);
+        this.costChecksum = checksum(costSource);
+    }
+
+    /**
+     * Load the matrices from the compiled file. Fails if the file is missing, has an unknown format, or was compiled
+     * from other sources than the ones given to the constructor. The file is memory mapped in windows of whole rows,
+     * so instances of any size can be loaded without a single mapping over 2 GB.
+     *
+     * @return True if the matrices were loaded
+     * @throws IOException If the file exists but can not be read
+     */
+
+    public boolean load() throws IOException {
+        if (!this.file.isFile() || this.file.length() < HEADER_SIZE) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+
+            // Check the header
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return false;
+            }
+            int size = header.getInt();
+            int dtype = header.getInt();
+            if (size < 0 || dtype != DTYPE_FLOAT64 || header.getLong() != this.distanceChecksum ||
+                    header.getLong() != this.costChecksum) {
+                return false;
+            }
+            if (channel.size() != fileSize(size)) {
+                return false;
+            }
+
+            // Map the distance matrix followed by the cost matrix
+            long matrixSize = (long) size * size * Double.BYTES;
+            this.distances = mapMatrix(channel, HEADER_SIZE, size);
+            this.costs = mapMatrix(channel, HEADER_SIZE + matrixSize, size);
+            this.cities = size;
+        }
+
+        return true;
+    }
+
+    /**
+     * Write the matrices to the compiled file. The file is written next to its final location and moved in place,
+     * so a crash never leaves a half written file behind. The values are written a row at a time.
+     *
+     * @param distances The distance matrix
+     * @param costs The cost matrix
+     * @throws IOException If the file can not be written
+     */
+
+    public void store(double[][] distances, double[][] costs) throws IOException {
+        int size = distances.length;
+
+        File directory = this.file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create directory " + directory);
+        }
+
+        File temporary = new File(directory, this.file.getName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Header
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(size);
+            header.putInt(DTYPE_FLOAT64);
+            header.putLong(this.distanceChecksum);
+            header.putLong(this.costChecksum);
+            header.flip();
+            writeFully(channel, header);
+
+            // The distance matrix followed by the cost matrix
+            ByteBuffer row = ByteBuffer.allocate(size * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            writeMatrix(channel, row, distances);
+            writeMatrix(channel, row, costs);
+
+            if (channel.size() != fileSize(size)) {
+                throw new IOException("Wrote " + channel.size() + " bytes to " + temporary + ", expected "
+                        + fileSize(size));
+            }
+        }
+        Files.move(temporary.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        this.cities = size;
+        this.distances = distances;
+        this.costs = costs;
+    }
+
+    /**
+     * Get the size of a compiled file, the header followed by two matrices
+     *
+     * @param size Number of cities
+     * @return Size in bytes
+     */
+
+    private static long fileSize(int size) {
+        return HEADER_SIZE + 2L * size * size * Double.BYTES;
+    }
+
+    /**
+     * Copy a square matrix out of the compiled file, mapping a window of whole rows at a time
+     *
+     * @param channel The compiled file
+     * @param position Position of the first row in the file
+     * @param size Number of rows and columns
+     * @return The matrix
+     * @throws IOException If the file can not be mapped
+     */
+
+    private static double[][] mapMatrix(FileChannel channel, long position, int size) throws IOException {
+        double[][] matrix = new double[size][];
+        long rowSize = (long) size * Double.BYTES;
+        int windowRows = (int) Math.max(1, Math.min(size, WINDOW_SIZE / Math.max(1, rowSize)));
+
+        for (int first = 0; first < size; first += windowRows) {
+            int rows = Math.min(windowRows, size - first);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position + first * rowSize,
+                    rows * rowSize);
+            DoubleBuffer values = window.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            for (int i = first; i < first + rows; i++) {
+                matrix[i] = new double[size];
+                values.get(matrix[i]);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Write a square matrix, one row at a time
+     *
+     * @param channel Channel positioned where the matrix goes
+     * @param row Buffer holding exactly one row
+     * @param matrix The matrix
+     * @throws IOException If the file can not be written
+     */
+
+    private static void writeMatrix(FileChannel channel, ByteBuffer row, double[][] matrix) throws IOException {
+        for (double[] values : matrix) {
+            row.clear();
+            row.asDoubleBuffer().put(values);
+            writeFully(channel, row);
+        }
+    }
+
+    /**
+     * Write all remaining bytes of a buffer to a channel
+     *
+     * @param channel The channel
+     * @param buffer The buffer
+     * @throws IOException If the channel can not be written
+     */
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Calculate the CRC32 checksum of a file, streaming it through a fixed buffer so files of any size can be checked
+     *
+     * @param source The file
+     * @return The checksum
+     * @throws IOException If the file can not be read
+     */
+
+    private static long checksum(File source) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHECKSUM_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Get the number of cities
+     *
+     * @return Number of cities
+     */
+
+    public int getCities() {
+        return this.cities;
+    }
+
+    /**
+     * Get the distance matrix
+     *
+     * @return The distances, indexed from 0
+     */
+
+    public double[][] getDistances() {
+        return this.distances;
+    }
+
+    /**
+     * Get the cost matrix
+     *
+     * @return The costs, indexed from 0
+     */
+
+    public double[][] getCosts() {
+        return this.costs;
+    }
+}
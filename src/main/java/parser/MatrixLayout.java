@@ -0,0 +1,46 @@
+package parser;
+
+public enum MatrixLayout {
+
+    // One double[][] for distances and one for costs, only stored as doubles
+    JAGGED {
+        @Override
+        public MatrixStorage create(double[][] distances, double[][] costs, MatrixPrecision precision) {
+            if (precision != MatrixPrecision.DOUBLE) {
+                throw new IllegalArgumentException("The jagged layout only stores doubles, not " + precision +
+                        ". Use --matrix-layout interleaved or triangular");
+            }
+            return new JaggedMatrixStorage(distances, costs);
+        }
+    },
+
+    // One flat array with the distance and cost of each edge next to each other
+    INTERLEAVED {
+        @Override
+        public MatrixStorage create(double[][] distances, double[][] costs, MatrixPrecision precision) {
+            if (precision == MatrixPrecision.DOUBLE) {
+                return new InterleavedMatrixStorage(distances, costs);
+            }
+            return new CompactMatrixStorage(distances, costs, false, precision);
+        }
+    },
+
+    // Like interleaved, but only the lower triangle is stored. Only for symmetric matrices
+    TRIANGULAR {
+        @Override
+        public MatrixStorage create(double[][] distances, double[][] costs, MatrixPrecision precision) {
+            return new CompactMatrixStorage(distances, costs, true, precision);
+        }
+    };
+
+    /**
+     * Store the matrices in this layout
+     *
+     * @param distances The distance matrix, indexed from 0
+     * @param costs The cost matrix, indexed from 0
+     * @param precision How to store each value, layouts that only store doubles reject the other precisions
+     * @return The storage
+     */
+
+    public abstract MatrixStorage create(double[][] distances, double[][] costs, MatrixPrecision precision);
+}
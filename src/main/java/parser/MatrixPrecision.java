@@ -0,0 +1,13 @@
+package parser;
+
+public enum MatrixPrecision {
+
+    // 8 byte doubles, exact
+    DOUBLE,
+
+    // 4 byte floats, about 7 significant digits
+    FLOAT,
+
+    // 2 byte integers scaled between the smallest and largest value, exact for integer values spanning at most 65535
+    QUANTIZED
+}
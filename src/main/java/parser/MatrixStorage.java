@@ -0,0 +1,53 @@
+package parser;
+
+public interface MatrixStorage {
+
+    /**
+     * Get the distance between two cities
+     *
+     * @param fromId From id, starting at 1
+     * @param toId To id, starting at 1
+     * @return Distance
+     */
+
+    double getDistance(int fromId, int toId);
+
+    /**
+     * Get the cost between two cities
+     *
+     * @param fromId From id, starting at 1
+     * @param toId To id, starting at 1
+     * @return Cost
+     */
+
+    double getCost(int fromId, int toId);
+
+    /**
+     * Calculate the distance and cost of a closed route, and store them at an index in two arrays
+     *
+     * @param routes Array holding the route
+     * @param offset Position of the first city of the route
+     * @param length Number of cities in the route
+     * @param distances Array to store the distance in
+     * @param costs Array to store the cost in
+     * @param index Index to store the values at
+     */
+
+    void evaluate(int[] routes, int offset, int length, double[] distances, double[] costs, int index);
+
+    /**
+     * Get the largest difference between a stored distance and the distance it was created from
+     *
+     * @return The worst case error, 0 if the values are stored exactly
+     */
+
+    double getDistanceError();
+
+    /**
+     * Get the largest difference between a stored cost and the cost it was created from
+     *
+     * @return The worst case error, 0 if the values are stored exactly
+     */
+
+    double getCostError();
+}
@@ -0,0 +1,111 @@
+package parser;
+
+import java.util.stream.IntStream;
+
+public class NeighbourLists {
+
+    // Number of neighbours for each city
+    private int size;
+
+    // The nearest cities of each city, nearest first. The list for city id i starts at i * size, id 0 is not used
+    private int[] distanceNeighbours;
+    private int[] costNeighbours;
+
+    /**
+     * Find the nearest cities of every city, by distance and by cost. The cities are handled in parallel.
+     *
+     * @param map The instance
+     * @param size Number of neighbours to find for each city, limited to the number of other cities
+     */
+
+    public NeighbourLists(Map map, int size) {
+        int cities = map.getCities();
+        this.size = Math.max(0, Math.min(size, cities - 1));
+        this.distanceNeighbours = new int[(cities + 1) * this.size];
+        this.costNeighbours = new int[(cities + 1) * this.size];
+        if (this.size == 0) {
+            return;
+        }
+
+        IntStream.rangeClosed(1, cities).parallel().forEach(city -> {
+            double[] values = new double[this.size];
+            this.fill(map, city, true, this.distanceNeighbours, values);
+            this.fill(map, city, false, this.costNeighbours, values);
+        });
+    }
+
+    /**
+     * Find the nearest cities of a single city, keeping a sorted list and inserting each closer city into it. Ties
+     * keep the lowest id first.
+     *
+     * @param map The instance
+     * @param city The city
+     * @param distance True to order by distance, false to order by cost
+     * @param neighbours Array to store the list in
+     * @param values Scratch buffer for the values of the list
+     */
+
+    private void fill(Map map, int city, boolean distance, int[] neighbours, double[] values) {
+        if (this.size == 0) {
+            return;
+        }
+
+        int start = city * this.size;
+        int count = 0;
+
+        for (int other = 1; other <= map.getCities(); other++) {
+            if (other == city) {
+                continue;
+            }
+
+            double value = distance ? map.getDistance(city, other) : map.getCost(city, other);
+            if (count == this.size && value >= values[count - 1]) {
+                continue;
+            }
+
+            // Shift the further neighbours down and insert
+            int i = count < this.size ? count++ : count - 1;
+            while (i > 0 && values[i - 1] > value) {
+                values[i] = values[i - 1];
+                neighbours[start + i] = neighbours[start + i - 1];
+                i--;
+            }
+            values[i] = value;
+            neighbours[start + i] = other;
+        }
+    }
+
+    /**
+     * Get the number of neighbours in each list
+     *
+     * @return Number of neighbours
+     */
+
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Get one of the nearest cities by distance
+     *
+     * @param city The city
+     * @param rank 0 for the nearest, up to size - 1
+     * @return The neighbour
+     */
+
+    public int getDistanceNeighbour(int city, int rank) {
+        return this.distanceNeighbours[city * this.size + rank];
+    }
+
+    /**
+     * Get one of the nearest cities by cost
+     *
+     * @param city The city
+     * @param rank 0 for the cheapest, up to size - 1
+     * @return The neighbour
+     */
+
+    public int getCostNeighbour(int city, int rank) {
+        return this.costNeighbours[city * this.size + rank];
+    }
+}
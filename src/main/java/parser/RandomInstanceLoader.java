@@ -0,0 +1,50 @@
+package parser;
+
+import java.util.SplittableRandom;
+
+public class RandomInstanceLoader implements InstanceLoader {
+
+    // Coordinates are drawn from [0, SIDE) in both directions
+    private static final double SIDE = 10000.0;
+
+    private int cities;
+    private long seed;
+
+    /**
+     * Constructor
+     *
+     * @param cities Number of cities
+     * @param seed Seed for the coordinates, the same seed gives the same instance
+     */
+
+    public RandomInstanceLoader(int cities, long seed) {
+        this.cities = cities;
+        this.seed = seed;
+    }
+
+    @Override
+    public Map load() {
+        SplittableRandom random = new SplittableRandom(this.seed);
+        Coordinates distances = generate(random);
+        Coordinates costs = generate(random);
+        return Map.fromCoordinates("random" + this.cities + "-" + this.seed, distances, costs);
+    }
+
+    /**
+     * Draw uniformly distributed cities, with the rounded euclidean distance between them. Each objective gets its
+     * own set of coordinates, like the classic kroAB instances.
+     *
+     * @param random Random number stream
+     * @return The coordinates
+     */
+
+    private Coordinates generate(SplittableRandom random) {
+        double[] x = new double[this.cities];
+        double[] y = new double[this.cities];
+        for (int i = 0; i < this.cities; i++) {
+            x[i] = random.nextDouble() * SIDE;
+            y[i] = random.nextDouble() * SIDE;
+        }
+        return new Coordinates(x, y, Coordinates.Metric.EUC_2D);
+    }
+}
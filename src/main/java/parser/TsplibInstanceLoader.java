@@ -0,0 +1,117 @@
+package parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class TsplibInstanceLoader implements InstanceLoader {
+
+    // Two TSPLIB files with node coordinates, one for each objective (like kroA100 and kroB100)
+    private File distanceFile;
+    private File costFile;
+
+    /**
+     * Constructor
+     *
+     * @param distanceFile TSPLIB file the distances are calculated from
+     * @param costFile TSPLIB file the costs are calculated from
+     */
+
+    public TsplibInstanceLoader(File distanceFile, File costFile) {
+        this.distanceFile = distanceFile;
+        this.costFile = costFile;
+    }
+
+    @Override
+    public Map load() throws IOException {
+        Coordinates distances = read(this.distanceFile);
+        Coordinates costs = read(this.costFile);
+        return Map.fromCoordinates(this.distanceFile.getName() + "+" + this.costFile.getName(), distances, costs);
+    }
+
+    /**
+     * Read the node coordinates of a TSPLIB file. Only the 2D coordinate types (EUC_2D, CEIL_2D and ATT) are
+     * supported.
+     *
+     * @param file The file
+     * @return The coordinates
+     * @throws IOException If the file can not be read or is not supported
+     */
+
+    public static Coordinates read(File file) throws IOException {
+        int dimension = -1;
+        Coordinates.Metric metric = null;
+        double[] x = null;
+        double[] y = null;
+        int lineNumber = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+
+            // Read the specification part
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.startsWith("NODE_COORD_SECTION")) {
+                    break;
+                }
+
+                int colon = line.indexOf(':');
+                if (colon == -1) {
+                    continue;
+                }
+                String key = line.substring(0, colon).trim();
+                String value = line.substring(colon + 1).trim();
+                if (key.equals("DIMENSION")) {
+                    dimension = Integer.parseInt(value);
+                }
+                else if (key.equals("EDGE_WEIGHT_TYPE")) {
+                    try {
+                        metric = Coordinates.Metric.valueOf(value);
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException(file + ": unsupported EDGE_WEIGHT_TYPE " + value, e);
+                    }
+                }
+            }
+
+            if (dimension <= 0 || metric == null) {
+                throw new IOException(file + ": missing DIMENSION, EDGE_WEIGHT_TYPE or NODE_COORD_SECTION");
+            }
+
+            // Read the coordinates, one node on each line
+            x = new double[dimension];
+            y = new double[dimension];
+            boolean[] seen = new boolean[dimension];
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.equals("EOF")) {
+                    break;
+                }
+
+                String[] fields = line.split("\\s+");
+                try {
+                    int node = Integer.parseInt(fields[0]) - 1;
+                    x[node] = Double.parseDouble(fields[1]);
+                    y[node] = Double.parseDouble(fields[2]);
+                    seen[node] = true;
+                } catch (RuntimeException e) {
+                    throw new IOException(file + ":" + lineNumber + ": invalid node " + line, e);
+                }
+            }
+
+            for (int i = 0; i < dimension; i++) {
+                if (!seen[i]) {
+                    throw new IOException(file + ": missing coordinates for node " + (i + 1));
+                }
+            }
+        }
+
+        return new Coordinates(x, y, metric);
+    }
+}
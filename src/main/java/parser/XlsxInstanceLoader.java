@@ -0,0 +1,116 @@
+package parser;
+
+import ea.Settings;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+public class XlsxInstanceLoader implements InstanceLoader {
+
+    // The workbooks, the first sheet holds the matrix with city labels in row 1 and column A
+    private File distanceFile;
+    private File costFile;
+
+    /**
+     * Constructor
+     *
+     * @param distanceFile Workbook holding the distances
+     * @param costFile Workbook holding the costs
+     */
+
+    public XlsxInstanceLoader(File distanceFile, File costFile) {
+        this.distanceFile = distanceFile;
+        this.costFile = costFile;
+    }
+
+    /**
+     * Loader for the instance shipped in the resources
+     *
+     * @return The loader
+     * @throws IOException If the resources are missing
+     */
+
+    public static XlsxInstanceLoader bundled() throws IOException {
+        return new XlsxInstanceLoader(resource("/Distance_reformat.xlsx"), resource("/Cost_reformat.xlsx"));
+    }
+
+    /**
+     * Find a file in the resources
+     *
+     * @param name Name of the resource
+     * @return The file
+     * @throws IOException If the resource is missing
+     */
+
+    private static File resource(String name) throws IOException {
+        URL url = XlsxInstanceLoader.class.getResource(name);
+        if (url == null) {
+            throw new IOException("Missing resource " + name);
+        }
+
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid resource " + name, e);
+        }
+    }
+
+    /**
+     * Load the instance. The matrices are read from the compiled cache if it was compiled from the same workbooks,
+     * otherwise the workbooks are parsed and the cache is compiled for the next run.
+     *
+     * @return The instance
+     * @throws IOException If a workbook can not be read
+     */
+
+    @Override
+    public Map load() throws IOException {
+        String name = this.distanceFile.getName() + "+" + this.costFile.getName();
+        double[][] distances = null;
+        double[][] costs = null;
+
+        // Use the compiled matrices if they are compiled from the same files
+        MatrixCache cache = null;
+        if (Settings.matrixCacheDirectory != null) {
+            File cacheFile = new File(Settings.matrixCacheDirectory, strip(this.distanceFile) + "_" +
+                    strip(this.costFile) + ".bin");
+            cache = new MatrixCache(cacheFile, this.distanceFile, this.costFile);
+            if (cache.load()) {
+                distances = cache.getDistances();
+                costs = cache.getCosts();
+            }
+        }
+
+        if (distances == null) {
+            // Stream both workbooks at the same time
+            XlsxMatrixReader[] readers = XlsxMatrixReader.readAll(this.costFile, this.distanceFile);
+
+            // The number of cities is found from the cost file
+            int cities = readers[0].getCities();
+            costs = readers[0].getMatrix(cities);
+            distances = readers[1].getMatrix(cities);
+
+            // Compile the matrices for the next run
+            if (cache != null) {
+                cache.store(distances, costs);
+            }
+        }
+
+        return new Map(name, distances, costs);
+    }
+
+    /**
+     * Get the name of a file without the extension
+     *
+     * @param file The file
+     * @return The name
+     */
+
+    private static String strip(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
@@ -0,0 +1,280 @@
+package parser;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class XlsxMatrixReader extends DefaultHandler {
+
+    // Values read so far, row and column 1 of the sheet is stored at [0][0]. Missing values are NaN. Rows are null
+    // until a value is stored in them
+    private double[][] matrix = new double[0][];
+
+    // Number of labels in the header row, used to size the rows up front
+    private int headerSize;
+
+    // Largest column holding a value so far, new rows are allocated at least this wide
+    private int width;
+
+    // Rows with a value in column A
+    private BitSet labelled = new BitSet();
+
+    // The cell being parsed
+    private int row;
+    private int column;
+    private boolean numeric;
+    private boolean hasValue;
+
+    // Position of the next row and cell, used when the optional references are left out
+    private int nextRow;
+    private int nextColumn;
+
+    // Text of the value being parsed, null when not inside a value
+    private StringBuilder value;
+
+    /**
+     * Stream several workbooks at the same time, see read
+     *
+     * @param files The workbooks
+     * @return The readers holding the parsed values, in the same order as the files
+     * @throws IOException If a workbook can not be read
+     */
+
+    public static XlsxMatrixReader[] readAll(File... files) throws IOException {
+        // Parse each workbook on its own worker of the common pool. The workers only touch this class, so a caller
+        // running inside a static initializer can not deadlock waiting for them
+        List<CompletableFuture<XlsxMatrixReader>> futures = new ArrayList<>();
+        for (File file : files) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return read(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+
+        XlsxMatrixReader[] readers = new XlsxMatrixReader[files.length];
+        try {
+            for (int i = 0; i < files.length; i++) {
+                readers[i] = futures.get(i).join();
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+
+        return readers;
+    }
+
+    /**
+     * Stream the first sheet of a workbook, without building the workbook in memory. Numeric cells are written
+     * straight into the matrix, everything else is ignored.
+     *
+     * @param file The workbook
+     * @return The reader holding the parsed values
+     * @throws IOException If the workbook can not be read
+     */
+
+    public static XlsxMatrixReader read(File file) throws IOException {
+        XlsxMatrixReader handler = new XlsxMatrixReader();
+
+        OPCPackage workbook;
+        try {
+            workbook = OPCPackage.open(file, PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Could not open " + file, e);
+        }
+
+        try (InputStream sheet = new XSSFReader(workbook).getSheetsData().next()) {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            XMLReader reader = factory.newSAXParser().getXMLReader();
+            reader.setContentHandler(handler);
+            reader.parse(new InputSource(sheet));
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Could not parse " + file, e);
+        } finally {
+            // Read only packages are closed by reverting them
+            workbook.revert();
+        }
+
+        return handler;
+    }
+
+    /**
+     * Get the number of cities, found by counting the rows after the header that have a value in column A
+     *
+     * @return Number of cities
+     */
+
+    public int getCities() {
+        int cities = 0;
+        while (this.labelled.get(cities + 1)) {
+            cities++;
+        }
+        return cities;
+    }
+
+    /**
+     * Get the matrix for a number of cities. Sheets often only fill one half of the matrix, so a value missing on
+     * one side of the diagonal is taken from the other side. Values missing on both sides are 0.
+     *
+     * @param cities Number of cities
+     * @return The matrix, indexed from 0
+     */
+
+    public double[][] getMatrix(int cities) {
+        double[][] result = new double[cities][];
+        for (int i = 0; i < cities; i++) {
+            // Trim the rows in place, so a row is never held at two sizes for longer than the copy
+            double[] values = i < this.matrix.length ? this.matrix[i] : null;
+            if (values == null || values.length != cities) {
+                values = resize(values, cities);
+                if (i < this.matrix.length) {
+                    this.matrix[i] = values;
+                }
+            }
+            result[i] = values;
+        }
+
+        // Fill in the missing values
+        Matrices.fillMissing(result);
+
+        return result;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String name, Attributes attributes) {
+        if (localName.equals("row")) {
+            // Rows without a reference follow the previous row
+            String reference = attributes.getValue("r");
+            this.row = reference == null ? this.nextRow : Integer.parseInt(reference) - 1;
+            this.nextRow = this.row + 1;
+            this.nextColumn = 0;
+        }
+        else if (localName.equals("c")) {
+            // Find the position of the cell from its reference, like AB12. Cells without a reference follow the
+            // previous cell in the row
+            String reference = attributes.getValue("r");
+            if (reference == null) {
+                this.column = this.nextColumn;
+            }
+            else {
+                int i = 0;
+                this.column = 0;
+                while (Character.isLetter(reference.charAt(i))) {
+                    this.column = this.column * 26 + (reference.charAt(i) - 'A' + 1);
+                    i++;
+                }
+                this.column--;
+                this.row = Integer.parseInt(reference.substring(i)) - 1;
+            }
+            this.nextColumn = this.column + 1;
+
+            // Cells without a type are numbers
+            String type = attributes.getValue("t");
+            this.numeric = type == null || type.equals("n");
+            this.hasValue = false;
+        }
+        else if (localName.equals("v")) {
+            this.value = new StringBuilder();
+            this.hasValue = true;
+        }
+        else if (localName.equals("is")) {
+            this.hasValue = true;
+        }
+    }
+
+    @Override
+    public void characters(char[] characters, int start, int length) {
+        if (this.value != null) {
+            this.value.append(characters, start, length);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String name) {
+        if (localName.equals("v")) {
+            // The labels in the header tell us how large the matrix will be
+            if (this.numeric && this.row == 0 && this.column > 0) {
+                this.headerSize = this.column;
+            }
+
+            // Store numbers below and to the right of the labels
+            if (this.numeric && this.row > 0 && this.column > 0) {
+                this.width = Math.max(this.width, this.column);
+                this.ensureCell(this.row - 1, this.column)[this.column - 1] = Double.parseDouble(this.value.toString());
+            }
+            this.value = null;
+        }
+        else if (localName.equals("c") && this.column == 0 && this.hasValue) {
+            this.labelled.set(this.row);
+        }
+    }
+
+    /**
+     * Make sure a row exists and is long enough for a number of columns. Only the array of rows grows by doubling.
+     * A new row is allocated as wide as the header or the widest row so far, which is its final size once either is
+     * known. Only the rows read before that point can grow, and they double to keep the copies linear.
+     *
+     * @param row The row
+     * @param columns Number of columns needed
+     * @return The row
+     */
+
+    private double[] ensureCell(int row, int columns) {
+        if (row >= this.matrix.length) {
+            this.matrix = Arrays.copyOf(this.matrix, Math.max(row + 1, 2 * this.matrix.length));
+        }
+
+        double[] values = this.matrix[row];
+        if (values == null) {
+            values = resize(null, Math.max(columns, Math.max(this.headerSize, this.width)));
+            this.matrix[row] = values;
+        }
+        else if (values.length < columns) {
+            values = resize(values, Math.max(columns, 2 * values.length));
+            this.matrix[row] = values;
+        }
+        return values;
+    }
+
+    /**
+     * Copy a row to a new length, marking the added values as missing
+     *
+     * @param values The row, null for a row without values
+     * @param length The new length
+     * @return The resized row
+     */
+
+    private static double[] resize(double[] values, int length) {
+        int current = values == null ? 0 : values.length;
+        double[] resized = values == null ? new double[length] : Arrays.copyOf(values, length);
+        if (length > current) {
+            Arrays.fill(resized, current, length, Double.NaN);
+        }
+        return resized;
+    }
+}
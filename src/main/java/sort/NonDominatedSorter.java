@@ -0,0 +1,278 @@
+package sort;
+
+import ea.Settings;
+import nsga.Population;
+import parento.ParetoFront;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class NonDominatedSorter {
+
+    // Scratch buffers, reused between generations
+    private int[] ranks;
+    private int[] order;
+    private int[] sortBuffer;
+    private double[] lastDistances;
+    private double[] lastCosts;
+
+    // Domination sets for the O(N^2) sort, in compressed form. The individuals dominated by slot i are stored in
+    // dominated[dominatedOffsets[i]] to dominated[dominatedOffsets[i + 1] - 1]
+    private int[] dominatedOffsets;
+    private int[] dominated;
+    private int[] dominatedBy;
+
+    // Queue of ranked individuals, one front after the other
+    private int[] frontQueue;
+
+    /**
+     * Constructor
+     */
+
+    public NonDominatedSorter() {
+        this.ensureCapacity(0);
+    }
+
+    /**
+     * Sort a population into pareto fronts. Fronts are only created until at least limit individuals are ranked, the
+     * remaining individuals are left without a rank.
+     *
+     * @param population Population to sort, all slots in use are sorted
+     * @param limit Number of individuals we need ranked
+     * @return List of pareto fronts, members are kept in slot order
+     */
+
+    public ArrayList<ParetoFront> sort(Population population, int limit) {
+        // Make sure our buffers are large enough
+        this.ensureCapacity(population.getSize());
+
+        // Resets rank and crowding distance
+        for (int i = 0; i < population.getSize(); i++) {
+            population.resetRanking(i);
+        }
+
+        // Rank the population using the selected engine
+        int numberOfFronts;
+        if (Settings.fastNonDominatedSort) {
+            numberOfFronts = this.sweepRanks(population);
+        }
+        else {
+            numberOfFronts = this.peelRanks(population, limit);
+        }
+
+        return this.buildFronts(population, numberOfFronts, limit);
+    }
+
+    /**
+     * Bi-objective ranking. Sorts by distance (then cost) and sweeps over cost, placing each individual in the first
+     * front whose last member does not dominate it. The fronts are found with binary search, giving O(N log N).
+     *
+     * @param population Population to rank
+     * @return Number of fronts found
+     */
+
+    private int sweepRanks(Population population) {
+        int size = population.getSize();
+
+        // Lexicographic order guarantees that anyone dominating an individual is processed before it
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Sorter.sort(order, size, sortBuffer, Sorter.distanceCostComparator(population));
+
+        int numberOfFronts = 0;
+        for (int i = 0; i < size; i++) {
+            int current = order[i];
+            double distance = population.getDistance(current);
+            double cost = population.getCost(current);
+
+            // Find the first front where the last member does not dominate the current individual
+            int low = 0;
+            int high = numberOfFronts;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (lastDominates(middle, distance, cost)) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+
+            // Store the rank and make this individual the last member of the front
+            ranks[current] = low;
+            lastDistances[low] = distance;
+            lastCosts[low] = cost;
+
+            // Check if we opened a new front
+            if (low == numberOfFronts) {
+                numberOfFronts++;
+            }
+        }
+
+        return numberOfFronts;
+    }
+
+    /**
+     * Check if the last member of a front dominates an individual that comes later in the sweep
+     *
+     * @param front The front to check
+     * @param distance Distance of the individual
+     * @param cost Cost of the individual
+     * @return True if the individual is dominated
+     */
+
+    private boolean lastDominates(int front, double distance, double cost) {
+        // The last member always has a lower or equal distance, so cost decides (equal points do not dominate)
+        return lastCosts[front] < cost || (lastCosts[front] == cost && lastDistances[front] < distance);
+    }
+
+    /**
+     * The original O(N^2) ranking. Compares every individual with every other individual and peels off the fronts one
+     * by one.
+     *
+     * @param population Population to rank
+     * @param limit Stop peeling once this many individuals are ranked
+     * @return Number of fronts found
+     */
+
+    private int peelRanks(Population population, int limit) {
+        int size = population.getSize();
+
+        // Loop the population
+        int cursor = 0;
+        int queueEnd = 0;
+        for (int current = 0; current < size; current++) {
+            dominatedOffsets[current] = cursor;
+            dominatedBy[current] = 0;
+            ranks[current] = Integer.MAX_VALUE;
+
+            // Loop again
+            for (int other = 0; other < size; other++) {
+                // Filter out self
+                if (current != other) {
+                    if (population.dominates(current, other)) {
+                        // Grow the index array if needed, it is kept for the next generation
+                        if (cursor == dominated.length) {
+                            dominated = Arrays.copyOf(dominated, Math.max(16, dominated.length * 2));
+                        }
+                        dominated[cursor++] = other;
+                    } else if (population.dominates(other, current)) {
+                        dominatedBy[current]++;
+                    }
+                }
+            }
+
+            if (dominatedBy[current] == 0) {
+                // Set rank to individual
+                ranks[current] = 0;
+                frontQueue[queueEnd++] = current;
+            }
+        }
+        dominatedOffsets[size] = cursor;
+
+        // Set the front counter
+        int numberOfFronts = 0;
+        int frontStart = 0;
+
+        // Loop until we have populated all the fronts, or ranked enough individuals
+        while (frontStart < queueEnd) {
+            int frontEnd = queueEnd;
+            numberOfFronts++;
+
+            if (frontEnd >= limit) {
+                break;
+            }
+
+            for (int i = frontStart; i < frontEnd; i++) {
+                int current = frontQueue[i];
+                for (int j = dominatedOffsets[current]; j < dominatedOffsets[current + 1]; j++) {
+                    int other = dominated[j];
+                    dominatedBy[other]--;
+
+                    if (dominatedBy[other] == 0) {
+                        ranks[other] = numberOfFronts;
+                        frontQueue[queueEnd++] = other;
+                    }
+                }
+            }
+
+            frontStart = frontEnd;
+        }
+
+        return numberOfFronts;
+    }
+
+    /**
+     * Create the pareto fronts from the ranks. Only the fronts needed to rank limit individuals are created.
+     *
+     * @param population The ranked population
+     * @param numberOfFronts Number of fronts found
+     * @param limit Number of individuals we need ranked
+     * @return List of pareto fronts
+     */
+
+    private ArrayList<ParetoFront> buildFronts(Population population, int numberOfFronts, int limit) {
+        int size = population.getSize();
+
+        // Count the number of members in each front (reusing the order buffer)
+        for (int i = 0; i < numberOfFronts; i++) {
+            order[i] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            if (ranks[i] < numberOfFronts) {
+                order[ranks[i]]++;
+            }
+        }
+
+        // Find how many fronts we need
+        int neededFronts = 0;
+        int ranked = 0;
+        while (neededFronts < numberOfFronts && ranked < limit) {
+            ranked += order[neededFronts];
+            neededFronts++;
+        }
+
+        // Create the fronts
+        ArrayList<ParetoFront> fronts = new ArrayList<>(neededFronts);
+        for (int i = 0; i < neededFronts; i++) {
+            fronts.add(new ParetoFront(i + 1, population));
+        }
+
+        // Add the members in slot order
+        for (int i = 0; i < size; i++) {
+            if (ranks[i] < neededFronts) {
+                population.setParetoRank(i, ranks[i] + 1);
+                fronts.get(ranks[i]).addMember(i);
+            }
+        }
+
+        return fronts;
+    }
+
+    /**
+     * Grow the scratch buffers if needed
+     *
+     * @param size Number of individuals to sort
+     */
+
+    private void ensureCapacity(int size) {
+        if (ranks != null && ranks.length >= size) {
+            return;
+        }
+
+        ranks = new int[size];
+        order = new int[size];
+        sortBuffer = new int[size];
+        lastDistances = new double[size];
+        lastCosts = new double[size];
+        dominatedBy = new int[size];
+        dominatedOffsets = new int[size + 1];
+        frontQueue = new int[size];
+
+        // The index array grows on its own while sorting
+        if (dominated == null) {
+            dominated = new int[0];
+        }
+    }
+}
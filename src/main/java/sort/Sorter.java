@@ -1,25 +1,32 @@
 package sort;
 
-import nsga.Individual;
-
-import java.util.Comparator;
+import nsga.Population;
 
 public class Sorter {
 
+    /**
+     * Comparator working on slot indices, avoiding the boxing done by java.util.Comparator
+     */
+
+    public interface IndexComparator {
+        int compare(int one, int two);
+    }
+
     /**
      * Compare distances
      *
+     * @param population Population the slots belong to
      * @return The comparator
      */
 
-    public static Comparator distanceComparator() {
-        return new Comparator<Individual>() {
-            public int compare(Individual one, Individual two) {
+    public static IndexComparator distanceComparator(final Population population) {
+        return new IndexComparator() {
+            public int compare(int one, int two) {
                 // Order in ascending order (lower is better)
-                if (one.getDistance() < two.getDistance()) {
+                if (population.getDistance(one) < population.getDistance(two)) {
                     return -1;
                 }
-                else if (one.getDistance() > two.getDistance()) {
+                else if (population.getDistance(one) > population.getDistance(two)) {
                     return 1;
 
                 }
@@ -33,17 +40,18 @@ public class Sorter {
     /**
      * Compare cost
      *
+     * @param population Population the slots belong to
      * @return The comparator
      */
 
-    public static Comparator costComparator() {
-        return new Comparator<Individual>() {
-            public int compare(Individual one, Individual two) {
+    public static IndexComparator costComparator(final Population population) {
+        return new IndexComparator() {
+            public int compare(int one, int two) {
                 // Order in ascending order (lower is better)
-                if (one.getCost() < two.getCost()) {
+                if (population.getCost(one) < population.getCost(two)) {
                     return -1;
                 }
-                else if (one.getCost() > two.getCost()) {
+                else if (population.getCost(one) > population.getCost(two)) {
                     return 1;
 
                 }
@@ -54,23 +62,45 @@ public class Sorter {
         };
     }
 
+    /**
+     * Compare distances, using cost to break ties
+     *
+     * @param population Population the slots belong to
+     * @return The comparator
+     */
+
+    public static IndexComparator distanceCostComparator(final Population population) {
+        final IndexComparator distance = distanceComparator(population);
+        final IndexComparator cost = costComparator(population);
+        return new IndexComparator() {
+            public int compare(int one, int two) {
+                int result = distance.compare(one, two);
+                if (result == 0) {
+                    return cost.compare(one, two);
+                }
+                return result;
+            }
+        };
+    }
+
     /**
      * Compare crowding distances using the following approach. If the two pareto ranks are equal, we compare crowding
      * distance. Higher crowding distance is better. If the ranks are unequal, we want the one with the lowest rank.
      *
+     * @param population Population the slots belong to
      * @return The comparator
      */
 
-    public static Comparator crowdingDistanceComparator() {
-        return new Comparator<Individual>() {
-            public int compare(Individual one, Individual two) {
+    public static IndexComparator crowdingDistanceComparator(final Population population) {
+        return new IndexComparator() {
+            public int compare(int one, int two) {
                 // Check if pareto rank is equal
-                if (one.getParetoRank() == two.getParetoRank()) {
+                if (population.getParetoRank(one) == population.getParetoRank(two)) {
                     // Compare crowding distance. Higher is better
-                    if (one.getCrowdingDistance() < two.getCrowdingDistance()) {
+                    if (population.getCrowdingDistance(one) < population.getCrowdingDistance(two)) {
                         return 1;
                     }
-                    else if (one.getCrowdingDistance() > two.getCrowdingDistance()) {
+                    else if (population.getCrowdingDistance(one) > population.getCrowdingDistance(two)) {
                         return -1;
                     }
                     else {
@@ -79,7 +109,7 @@ public class Sorter {
                 }
                 else {
                     // Compare pareto rank. Lower is better
-                    if (one.getParetoRank() < two.getParetoRank()) {
+                    if (population.getParetoRank(one) < population.getParetoRank(two)) {
                         return -1;
                     }
                     else {
@@ -89,4 +119,201 @@ public class Sorter {
             }
         };
     }
+
+    /**
+     * Sort indices using a comparator. This is a stable merge sort working on primitives, so it gives the same order
+     * as Collections.sort would.
+     *
+     * @param indices Indices to sort
+     * @param size Number of indices to sort
+     * @param buffer Scratch buffer, at least as large as size
+     * @param comparator The comparator
+     */
+
+    public static void sort(int[] indices, int size, int[] buffer, IndexComparator comparator) {
+        sort(indices, 0, size, buffer, comparator);
+    }
+
+    /**
+     * Sort a range of indices using a comparator. Stable merge sort, see above.
+     *
+     * @param indices Indices to sort
+     * @param from First index in the range, inclusive
+     * @param to Last index in the range, exclusive
+     * @param buffer Scratch buffer, at least as large as to
+     * @param comparator The comparator
+     */
+
+    public static void sort(int[] indices, int from, int to, int[] buffer, IndexComparator comparator) {
+        // Bottom up merge sort, swapping source and destination for each width
+        int[] source = indices;
+        int[] destination = buffer;
+        for (int width = 1; width < to - from; width *= 2) {
+            for (int low = from; low < to; low += 2 * width) {
+                int middle = Math.min(low + width, to);
+                int high = Math.min(low + 2 * width, to);
+
+                // Merge the two runs, taking from the left run on ties
+                int left = low;
+                int right = middle;
+                for (int k = low; k < high; k++) {
+                    if (right >= high || (left < middle && comparator.compare(source[left], source[right]) <= 0)) {
+                        destination[k] = source[left++];
+                    }
+                    else {
+                        destination[k] = source[right++];
+                    }
+                }
+            }
+
+            int[] temp = source;
+            source = destination;
+            destination = temp;
+        }
+
+        // Make sure the result ends up in the indices array
+        if (source != indices) {
+            System.arraycopy(source, from, indices, from, to - from);
+        }
+    }
+
+    /**
+     * Wrap a comparator so that ties are broken by the index itself, lowest first. This gives a strict total order,
+     * which makes selection deterministic.
+     *
+     * @param comparator The comparator
+     * @return The comparator with ties broken
+     */
+
+    public static IndexComparator breakTiesByIndex(final IndexComparator comparator) {
+        return new IndexComparator() {
+            public int compare(int one, int two) {
+                int result = comparator.compare(one, two);
+                if (result == 0) {
+                    return Integer.compare(one, two);
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Partially sort indices so the first k are the k smallest, in no particular order. Quickselect with median of
+     * three pivots, falling back to sorting the range if the partitioning goes badly. Expected linear time.
+     *
+     * @param indices Indices to select from
+     * @param size Number of indices
+     * @param k Number of indices to select
+     * @param buffer Scratch buffer, at least as large as size. Only the fallback uses it, but the range it sorts can
+     *               end anywhere up to size, and the sort writes up to the end of its range
+     * @param comparator The comparator, should be a strict total order (see breakTiesByIndex)
+     */
+
+    public static void select(int[] indices, int size, int k, int[] buffer, IndexComparator comparator) {
+        // Check up front, the fallback that needs the buffer only runs on unlucky inputs
+        if (buffer.length < size) {
+            throw new IllegalArgumentException("Buffer of length " + buffer.length + " is too small for " + size
+                    + " indices");
+        }
+
+        int low = 0;
+        int high = size - 1;
+
+        // Allow some bad pivots before falling back to sorting
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(size));
+
+        while (k > low && k <= high) {
+            if (depth-- == 0) {
+                sort(indices, low, high + 1, buffer, comparator);
+                return;
+            }
+
+            // Pick the median of the first, middle and last index as pivot, and move it to the end
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(indices[middle], indices[low]) < 0) {
+                swap(indices, middle, low);
+            }
+            if (comparator.compare(indices[high], indices[low]) < 0) {
+                swap(indices, high, low);
+            }
+            if (comparator.compare(indices[high], indices[middle]) < 0) {
+                swap(indices, high, middle);
+            }
+            swap(indices, middle, high);
+            int pivot = indices[high];
+
+            // Move everything smaller than the pivot to the front
+            int store = low;
+            for (int i = low; i < high; i++) {
+                if (comparator.compare(indices[i], pivot) < 0) {
+                    swap(indices, i, store++);
+                }
+            }
+            swap(indices, store, high);
+
+            // Continue on the side holding the k-th position
+            if (store < k) {
+                low = store + 1;
+            }
+            else {
+                high = store - 1;
+            }
+        }
+    }
+
+    /**
+     * Swap two entries in an array
+     *
+     * @param indices The array
+     * @param one First position
+     * @param two Second position
+     */
+
+    private static void swap(int[] indices, int one, int two) {
+        int temp = indices[one];
+        indices[one] = indices[two];
+        indices[two] = temp;
+    }
+
+    /**
+     * Sort indices in ascending order of a primitive key. Stable merge sort like sort(), but reading the keys straight
+     * from an array instead of going through a comparator.
+     *
+     * @param indices Indices to sort, used to look up the keys
+     * @param size Number of indices to sort
+     * @param buffer Scratch buffer, at least as large as size
+     * @param keys The keys
+     */
+
+    public static void sortByKey(int[] indices, int size, int[] buffer, double[] keys) {
+        int[] source = indices;
+        int[] destination = buffer;
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size; low += 2 * width) {
+                int middle = Math.min(low + width, size);
+                int high = Math.min(low + 2 * width, size);
+
+                // Merge the two runs, taking from the left run on ties
+                int left = low;
+                int right = middle;
+                for (int k = low; k < high; k++) {
+                    if (right >= high || (left < middle && keys[source[left]] <= keys[source[right]])) {
+                        destination[k] = source[left++];
+                    }
+                    else {
+                        destination[k] = source[right++];
+                    }
+                }
+            }
+
+            int[] temp = source;
+            source = destination;
+            destination = temp;
+        }
+
+        // Make sure the result ends up in the indices array
+        if (source != indices) {
+            System.arraycopy(source, 0, indices, 0, size);
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package sort;
+
+import nsga.Population;
+import parser.RandomInstanceLoader;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class TruncationBenchmark {
+
+    // Number of times each size is measured, after the same number of warm up rounds
+    private static final int ROUNDS = 50;
+
+    /**
+     * Compare truncating a front with a full sort against quickselect. Every front has a single rank, and the crowding
+     * distances are drawn from a small set of values (including infinity) so there are plenty of ties. Both approaches
+     * must pick the same members.
+     *
+     * @param args Front sizes to measure, defaults to 2000, 10000 and 50000
+     */
+
+    public static void main(String[] args) {
+        int[] sizes = {2000, 10000, 50000};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        for (int size : sizes) {
+            run(size);
+        }
+    }
+
+    /**
+     * Measure a single front size, keeping half of the front
+     *
+     * @param size Number of members in the front
+     */
+
+    private static void run(int size) {
+        SplittableRandom random = new SplittableRandom(size);
+        int keep = size / 2;
+
+        // Create a single front with tied crowding distances
+        Population population = new Population(size, new RandomInstanceLoader(2, 0).load());
+        population.setSize(size);
+        int[] members = new int[size];
+        for (int i = 0; i < size; i++) {
+            members[i] = i;
+            population.setParetoRank(i, 1);
+            population.setCrowdingDistance(i, random.nextInt(20) == 0 ? Double.POSITIVE_INFINITY :
+                    random.nextInt(100) / 100.0);
+        }
+
+        int[] indices = new int[size];
+        int[] buffer = new int[size];
+        Sorter.IndexComparator comparator = Sorter.crowdingDistanceComparator(population);
+        Sorter.IndexComparator strict = Sorter.breakTiesByIndex(comparator);
+
+        // Warm up and measure the full sort
+        long sortTime = 0;
+        for (int round = 0; round < 2 * ROUNDS; round++) {
+            System.arraycopy(members, 0, indices, 0, size);
+            long start = System.nanoTime();
+            Sorter.sort(indices, size, buffer, comparator);
+            if (round >= ROUNDS) {
+                sortTime += System.nanoTime() - start;
+            }
+        }
+        int[] sorted = Arrays.copyOf(indices, keep);
+
+        // Warm up and measure quickselect
+        long selectTime = 0;
+        for (int round = 0; round < 2 * ROUNDS; round++) {
+            System.arraycopy(members, 0, indices, 0, size);
+            long start = System.nanoTime();
+            Sorter.select(indices, size, keep, buffer, strict);
+            if (round >= ROUNDS) {
+                selectTime += System.nanoTime() - start;
+            }
+        }
+        int[] selected = Arrays.copyOf(indices, keep);
+
+        // Both must keep the same members
+        Arrays.sort(sorted);
+        Arrays.sort(selected);
+        if (!Arrays.equals(sorted, selected)) {
+            throw new IllegalStateException("Quickselect kept different members than the sort for size " + size);
+        }
+
+        System.out.printf("Size %6d, keeping %6d: sort %8.3f ms, select %8.3f ms%n", size, keep,
+                sortTime / (ROUNDS * 1e6), selectTime / (ROUNDS * 1e6));
+    }
+}